@@ -89,6 +89,243 @@ public class LetterLoverApplication extends Application {
     }
 }
 
+// src/main/java/com/letterlover/client/network/GameTransport.java
+package com.letterlover.client.network;
+
+import com.letterlover.common.dto.*;
+import com.letterlover.common.model.GameState;
+
+import java.util.function.Consumer;
+
+// What MainController needs from a game: a server connection or the in-process engine
+public interface GameTransport {
+
+    void connect();
+
+    void setGameStateHandler(Consumer<GameState> handler);
+
+    void setChatMessageHandler(Consumer<ChatMessage> handler);
+
+    void createRoom(String playerId, String playerName);
+
+    void joinRoom(String roomCode, String playerId, String playerName);
+
+    void addBot(String roomCode);
+
+    void startGame(String roomCode);
+
+    void sendAction(GameAction action);
+
+    void sendChatMessage(ChatMessage message);
+
+    CardCatalog getCatalog();
+
+    default boolean isLocal() {
+        return false;
+    }
+}
+
+// src/main/java/com/letterlover/client/network/LocalGameTransport.java
+package com.letterlover.client.network;
+
+import com.letterlover.common.dto.*;
+import com.letterlover.common.engine.BotBrain;
+import com.letterlover.common.engine.GameEngine;
+import com.letterlover.common.engine.LegalMoves;
+import com.letterlover.common.engine.RuleSets;
+import com.letterlover.common.model.*;
+import javafx.application.Platform;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.*;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// Runs the rules engine inside the client for hot-seat and vs-computer play. Every call happens on the
+// callback thread (the FX thread by default), so the state is never shared and never serialized.
+@Slf4j
+public class LocalGameTransport implements GameTransport {
+
+    private static final String ROOM_CODE = "LOCAL";
+    private static final String SYSTEM_NAME = "System";
+    private static final long NEXT_ROUND_DELAY_MILLIS = 2000;
+
+    private final GameEngine engine = new GameEngine();
+    private final BotBrain brain = new BotBrain();
+    private final Set<String> bots = new HashSet<>();
+    private final Executor callbacks;
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "local-game-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private Consumer<GameState> gameStateHandler = state -> {};
+    private Consumer<ChatMessage> chatMessageHandler = message -> {};
+    private GameState game;
+
+    public LocalGameTransport() {
+        this(Platform::runLater);
+    }
+
+    public LocalGameTransport(Executor callbacks) {
+        this.callbacks = callbacks;
+    }
+
+    @Override
+    public void connect() {
+        log.info("Playing locally without a server");
+    }
+
+    @Override
+    public boolean isLocal() {
+        return true;
+    }
+
+    public boolean isBot(String playerId) {
+        return bots.contains(playerId);
+    }
+
+    @Override
+    public void setGameStateHandler(Consumer<GameState> handler) {
+        this.gameStateHandler = handler;
+    }
+
+    @Override
+    public void setChatMessageHandler(Consumer<ChatMessage> handler) {
+        this.chatMessageHandler = handler;
+    }
+
+    @Override
+    public void createRoom(String playerId, String playerName) {
+        game = new GameState();
+        game.setRoomCode(ROOM_CODE);
+        game.setPhase(GameState.GamePhase.WAITING);
+        game.getPlayers().add(new Player(playerId, playerName));
+        bots.clear();
+        publish();
+    }
+
+    // Hot-seat: every additional human shares this screen
+    @Override
+    public void joinRoom(String roomCode, String playerId, String playerName) {
+        if (game == null) {
+            createRoom(playerId, playerName);
+            return;
+        }
+        seat(playerId, playerName);
+    }
+
+    @Override
+    public void addBot(String roomCode) {
+        String botId = "bot-" + UUID.randomUUID();
+        bots.add(botId);
+        seat(botId, "Computer " + bots.size());
+    }
+
+    private void seat(String playerId, String playerName) {
+        if (game.getPhase() != GameState.GamePhase.WAITING
+                || game.getPlayers().size() >= RuleSets.get(game.getRuleSet()).getMaxPlayers()) {
+            log.warn("Cannot seat {} at the local table", playerName);
+            return;
+        }
+        game.getPlayers().add(new Player(playerId, playerName));
+        publish();
+    }
+
+    @Override
+    public void startGame(String roomCode) {
+        if (game == null || game.getPhase() == GameState.GamePhase.PLAYING
+                || game.getPhase() == GameState.GamePhase.GAME_END) {
+            return;
+        }
+        List<Card> deck = RuleSets.get(game.getRuleSet()).newDeck();
+        Collections.shuffle(deck);
+        engine.startNewRound(game, deck);
+        afterChange();
+    }
+
+    @Override
+    public void sendAction(GameAction action) {
+        try {
+            engine.playCard(game, action);
+        } catch (IllegalStateException e) {
+            log.warn("Move rejected: {}", e.getMessage());
+            return;
+        }
+        afterChange();
+    }
+
+    @Override
+    public void sendChatMessage(ChatMessage message) {
+        chatMessageHandler.accept(message);
+    }
+
+    @Override
+    public CardCatalog getCatalog() {
+        return CardCatalog.current();
+    }
+
+    private void afterChange() {
+        publish();
+        switch (game.getPhase()) {
+            case PLAYING -> {
+                if (bots.contains(game.getCurrentPlayer().getId())) {
+                    // Queued so the screen shows every move before the computer makes the next one
+                    callbacks.execute(this::playBot);
+                }
+            }
+            case ROUND_END -> timer.schedule(() -> callbacks.execute(() -> startGame(ROOM_CODE)),
+                    NEXT_ROUND_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+            default -> {
+            }
+        }
+    }
+
+    // The engine checks a move before changing anything, so only a rejected move (IllegalStateException)
+    // leaves the game as it was and may be followed by the default one. Any other failure can leave it
+    // half-applied; the computer players then stop rather than play on from that state, and say so in the chat.
+    private void playBot() {
+        Player bot = game.getCurrentPlayer();
+        if (game.getPhase() != GameState.GamePhase.PLAYING || !bots.contains(bot.getId())) {
+            return;
+        }
+        try {
+            GameAction move = decide(bot);
+            try {
+                engine.playCard(game, move);
+            } catch (IllegalStateException e) {
+                log.warn("Move of {} rejected: {}", bot.getName(), e.getMessage());
+                engine.playCard(game, LegalMoves.defaultMove(game));
+            }
+        } catch (RuntimeException e) {
+            log.error("{} failed to move, stopping the computer players", bot.getName(), e);
+            notice(bot.getName() + " konnte nicht ziehen. Die Computerspieler sind angehalten.");
+            return;
+        }
+        afterChange();
+    }
+
+    private void notice(String message) {
+        chatMessageHandler.accept(new ChatMessage(null, SYSTEM_NAME, message, System.currentTimeMillis(), ROOM_CODE));
+    }
+
+    private GameAction decide(Player bot) {
+        try {
+            return brain.decide(game, bot, Map.of());
+        } catch (RuntimeException e) {
+            log.warn("{} could not decide, playing the default move", bot.getName(), e);
+            return LegalMoves.defaultMove(game);
+        }
+    }
+
+    private void publish() {
+        gameStateHandler.accept(game);
+    }
+}
+
 // src/main/java/com/letterlover/client/network/WebSocketClient.java
 package com.letterlover.client.network;
 
@@ -98,39 +335,108 @@ import com.letterlover.common.model.GameState;
 import javafx.application.Platform;
 import lombok.extern.slf4j.Slf4j;
 import org.java_websocket.client.WebSocketClient;
+import org.java_websocket.drafts.Draft_6455;
 import org.java_websocket.handshake.ServerHandshake;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompDecoder;
+import org.springframework.messaging.simp.stomp.StompEncoder;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeTypeUtils;
 
 import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 
+// STOMP 1.2 over the native /ws-native endpoint: one socket, one reader thread and one decoder
+// for any number of followed rooms. Subscription ids are the destinations themselves.
 @Slf4j
-public class GameWebSocketClient extends WebSocketClient {
-    
+public class GameWebSocketClient extends WebSocketClient implements GameTransport {
+
+    private static final String ROOM_TOPIC = "/topic/room.";
+    private static final String CHAT_TOPIC = "/topic/chat.";
+    private static final String CATALOG = "/app/game.catalog";
+    private static final String ROOM_STATE = "/app/game.room.";
+    private static final String CREATED_ROOMS = "/user/queue/rooms";
+    private static final long HEARTBEAT_MILLIS = 10_000;
+    // Frames below this size are sent uncompressed, deflate rarely pays off for them
+    private static final int DEFLATE_THRESHOLD = 256;
+
     private final ObjectMapper objectMapper = new ObjectMapper();
+    private final StompEncoder encoder = new StompEncoder();
+    private final StompDecoder decoder = new StompDecoder();
+    private final Map<String, RoomHandlers> rooms = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<Void>> receipts = new ConcurrentHashMap<>();
+    private final AtomicLong receiptIds = new AtomicLong();
+    private final ScheduledExecutorService heartbeat = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "stomp-heartbeat");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Cancelled on close rather than shutting the executor down, which reconnect() still needs
+    private final List<ScheduledFuture<?>> heartbeats = new CopyOnWriteArrayList<>();
+    private final Executor callbacks;
     private Consumer<GameState> gameStateHandler;
     private Consumer<ChatMessage> chatMessageHandler;
+    private volatile CardCatalog catalog;
+    private volatile boolean stompConnected;
+    private volatile long lastReceived;
+
+    private record RoomHandlers(Consumer<GameState> gameState, Consumer<ChatMessage> chat) {
+    }
 
     public GameWebSocketClient(String serverUrl) throws Exception {
-        super(new URI(serverUrl + "/ws"));
+        this(serverUrl, Platform::runLater);
+    }
+
+    // Headless users (bots, observers, tools) pass their own executor instead of the FX thread
+    public GameWebSocketClient(String serverUrl, Executor callbacks) throws Exception {
+        this(serverUrl, callbacks, Boolean.parseBoolean(System.getProperty("letterlover.ws.context-takeover", "true")));
+    }
+
+    // Context takeover keeps a 32 KB deflate window per direction alive between frames: better ratio, more memory
+    public GameWebSocketClient(String serverUrl, Executor callbacks, boolean contextTakeover) throws Exception {
+        super(new URI(serverUrl + "/ws-native"), new Draft_6455(new DeflateExtension(DEFLATE_THRESHOLD, contextTakeover)));
+        this.callbacks = callbacks;
     }
 
     @Override
     public void onOpen(ServerHandshake handshake) {
         log.info("WebSocket connection opened");
+        StompHeaderAccessor connect = StompHeaderAccessor.create(StompCommand.CONNECT);
+        connect.setAcceptVersion("1.2");
+        connect.setHost(getURI().getHost());
+        connect.setHeartbeat(HEARTBEAT_MILLIS, HEARTBEAT_MILLIS);
+        lastReceived = System.currentTimeMillis();
+        sendFrame(connect, new byte[0]);
     }
 
     @Override
     public void onMessage(String message) {
+        lastReceived = System.currentTimeMillis();
         try {
-            if (message.contains("\"phase\"")) {
-                GameState gameState = objectMapper.readValue(message, GameState.class);
-                if (gameStateHandler != null) {
-                    Platform.runLater(() -> gameStateHandler.accept(gameState));
+            for (Message<byte[]> frame : decoder.decode(ByteBuffer.wrap(message.getBytes(StandardCharsets.UTF_8)))) {
+                StompHeaderAccessor accessor = StompHeaderAccessor.wrap(frame);
+                if (accessor.getCommand() == null) {
+                    continue;
                 }
-            } else if (message.contains("\"timestamp\"")) {
-                ChatMessage chatMessage = objectMapper.readValue(message, ChatMessage.class);
-                if (chatMessageHandler != null) {
-                    Platform.runLater(() -> chatMessageHandler.accept(chatMessage));
+                switch (accessor.getCommand()) {
+                    case CONNECTED -> onConnected(accessor);
+                    case MESSAGE -> onStompMessage(accessor.getDestination(), frame.getPayload());
+                    case RECEIPT -> {
+                        CompletableFuture<Void> receipt = receipts.remove(accessor.getReceiptId());
+                        if (receipt != null) {
+                            receipt.complete(null);
+                        }
+                    }
+                    case ERROR -> log.error("STOMP error: {}", accessor.getMessage());
+                    default -> log.debug("Ignoring STOMP {}", accessor.getCommand());
                 }
             }
         } catch (Exception e) {
@@ -138,9 +444,91 @@ public class GameWebSocketClient extends WebSocketClient {
         }
     }
 
+    private void onConnected(StompHeaderAccessor accessor) {
+        stompConnected = true;
+        cancelHeartbeats();
+        long[] server = accessor.getHeartbeat();
+        if (server[1] > 0) {
+            long interval = Math.max(HEARTBEAT_MILLIS, server[1]);
+            heartbeats.add(heartbeat.scheduleWithFixedDelay(() -> {
+                if (isOpen()) {
+                    send("\n");
+                }
+            }, interval, interval, TimeUnit.MILLISECONDS));
+        }
+        if (server[0] > 0) {
+            // Give the server three missed heartbeats before treating the connection as dead
+            long timeout = 3 * Math.max(HEARTBEAT_MILLIS, server[0]);
+            heartbeats.add(heartbeat.scheduleWithFixedDelay(() -> {
+                if (System.currentTimeMillis() - lastReceived > timeout) {
+                    log.warn("No frames from server for {} ms, closing", timeout);
+                    close();
+                }
+            }, timeout, timeout / 3, TimeUnit.MILLISECONDS));
+        }
+        subscribe(CATALOG);
+        subscribe(CREATED_ROOMS);
+        for (String roomCode : rooms.keySet()) {
+            subscribeRoom(roomCode);
+        }
+    }
+
+    private void onStompMessage(String destination, byte[] payload) throws Exception {
+        if (destination.startsWith(ROOM_TOPIC)) {
+            String roomCode = destination.substring(ROOM_TOPIC.length());
+            GameState gameState = objectMapper.readValue(payload, GameState.class);
+            Consumer<GameState> handler = route(roomCode).gameState();
+            if (handler != null) {
+                callbacks.execute(() -> handler.accept(gameState));
+            }
+        } else if (destination.startsWith(CHAT_TOPIC)) {
+            String roomCode = destination.substring(CHAT_TOPIC.length());
+            ChatMessage chatMessage = objectMapper.readValue(payload, ChatMessage.class);
+            Consumer<ChatMessage> handler = route(roomCode).chat();
+            if (handler != null) {
+                callbacks.execute(() -> handler.accept(chatMessage));
+            }
+        } else if (destination.startsWith(ROOM_STATE)) {
+            String roomCode = destination.substring(ROOM_STATE.length());
+            GameState gameState = objectMapper.readValue(payload, GameState.class);
+            Consumer<GameState> handler = route(roomCode).gameState();
+            if (handler != null) {
+                callbacks.execute(() -> handler.accept(gameState));
+            }
+        } else if (destination.equals(CREATED_ROOMS)) {
+            RoomInfo room = objectMapper.readValue(payload, RoomInfo.class);
+            follow(room.getRoomCode());
+            // The room's first broadcast went out before this client followed it
+            subscribe(ROOM_STATE + room.getRoomCode());
+        } else if (destination.equals(CATALOG)) {
+            catalog = objectMapper.readValue(payload, CardCatalog.class);
+            if (catalog.getVersion() != CardCatalog.VERSION) {
+                log.warn("Server card catalog v{} differs from client v{}", catalog.getVersion(), CardCatalog.VERSION);
+            }
+        }
+    }
+
+    private RoomHandlers route(String roomCode) {
+        RoomHandlers handlers = rooms.get(roomCode);
+        Consumer<GameState> gameState = handlers != null && handlers.gameState() != null
+                ? handlers.gameState() : gameStateHandler;
+        Consumer<ChatMessage> chat = handlers != null && handlers.chat() != null
+                ? handlers.chat() : chatMessageHandler;
+        return new RoomHandlers(gameState, chat);
+    }
+
     @Override
     public void onClose(int code, String reason, boolean remote) {
         log.info("WebSocket connection closed: {}", reason);
+        stompConnected = false;
+        cancelHeartbeats();
+        receipts.values().forEach(r -> r.completeExceptionally(new IllegalStateException("Connection closed")));
+        receipts.clear();
+    }
+
+    private void cancelHeartbeats() {
+        heartbeats.forEach(task -> task.cancel(false));
+        heartbeats.clear();
     }
 
     @Override
@@ -148,48 +536,279 @@ public class GameWebSocketClient extends WebSocketClient {
         log.error("WebSocket error", ex);
     }
 
+    @Override
+    public CardCatalog getCatalog() {
+        return catalog;
+    }
+
+    // Followed rooms without their own handlers use these
+    @Override
     public void setGameStateHandler(Consumer<GameState> handler) {
         this.gameStateHandler = handler;
     }
 
+    @Override
     public void setChatMessageHandler(Consumer<ChatMessage> handler) {
         this.chatMessageHandler = handler;
     }
 
+    // The server answers on this session's /user/queue/rooms; the room is followed from there
+    @Override
+    public void createRoom(String playerId, String playerName) {
+        sendTo("/app/game.createRoom", Map.of("playerId", playerId, "playerName", playerName));
+    }
+
+    @Override
+    public void joinRoom(String roomCode, String playerId, String playerName) {
+        follow(roomCode);
+        sendTo("/app/game.joinRoom", Map.of("roomCode", roomCode, "playerId", playerId, "playerName", playerName));
+    }
+
+    @Override
+    public void addBot(String roomCode) {
+        sendTo("/app/game.addBot", Map.of("roomCode", roomCode));
+    }
+
+    @Override
+    public void startGame(String roomCode) {
+        sendTo("/app/game.startGame", Map.of("roomCode", roomCode));
+    }
+
+    public void follow(String roomCode) {
+        follow(roomCode, null, null);
+    }
+
+    public void follow(String roomCode, Consumer<GameState> gameStateHandler, Consumer<ChatMessage> chatHandler) {
+        if (rooms.put(roomCode, new RoomHandlers(gameStateHandler, chatHandler)) == null && stompConnected) {
+            subscribeRoom(roomCode);
+        }
+    }
+
+    public void unfollow(String roomCode) {
+        if (rooms.remove(roomCode) != null && stompConnected) {
+            unsubscribe(ROOM_TOPIC + roomCode);
+            unsubscribe(CHAT_TOPIC + roomCode);
+        }
+    }
+
+    public int getFollowedRoomCount() {
+        return rooms.size();
+    }
+
+    @Override
     public void sendAction(GameAction action) {
+        sendTo("/app/game.playCard", action);
+    }
+
+    @Override
+    public void sendChatMessage(ChatMessage message) {
+        sendTo("/app/chat.sendMessage", message);
+    }
+
+    public void sendTo(String destination, Object payload) {
         try {
-            String json = objectMapper.writeValueAsString(action);
-            send(json);
+            sendFrame(sendHeaders(destination), objectMapper.writeValueAsBytes(payload));
         } catch (Exception e) {
-            log.error("Error sending action", e);
+            log.error("Error sending to {}", destination, e);
         }
     }
 
-    public void sendChatMessage(ChatMessage message) {
+    // Completes once the server has processed the frame, or fails if the connection closes first
+    public CompletableFuture<Void> sendWithReceipt(String destination, Object payload) {
+        String receiptId = Long.toString(receiptIds.incrementAndGet());
+        CompletableFuture<Void> receipt = new CompletableFuture<>();
+        receipts.put(receiptId, receipt);
         try {
-            String json = objectMapper.writeValueAsString(message);
-            send(json);
+            StompHeaderAccessor send = sendHeaders(destination);
+            send.setReceipt(receiptId);
+            sendFrame(send, objectMapper.writeValueAsBytes(payload));
         } catch (Exception e) {
-            log.error("Error sending chat message", e);
+            receipts.remove(receiptId);
+            receipt.completeExceptionally(e);
         }
+        return receipt;
+    }
+
+    private StompHeaderAccessor sendHeaders(String destination) {
+        StompHeaderAccessor send = StompHeaderAccessor.create(StompCommand.SEND);
+        send.setDestination(destination);
+        send.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        return send;
+    }
+
+    private void subscribeRoom(String roomCode) {
+        subscribe(ROOM_TOPIC + roomCode);
+        subscribe(CHAT_TOPIC + roomCode);
+    }
+
+    private void subscribe(String destination) {
+        StompHeaderAccessor subscribe = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+        subscribe.setDestination(destination);
+        subscribe.setSubscriptionId(destination);
+        sendFrame(subscribe, new byte[0]);
+    }
+
+    private void unsubscribe(String destination) {
+        StompHeaderAccessor unsubscribe = StompHeaderAccessor.create(StompCommand.UNSUBSCRIBE);
+        unsubscribe.setSubscriptionId(destination);
+        sendFrame(unsubscribe, new byte[0]);
+    }
+
+    private void sendFrame(StompHeaderAccessor headers, byte[] payload) {
+        byte[] frame = encoder.encode(MessageBuilder.createMessage(payload, headers.getMessageHeaders()));
+        send(new String(frame, StandardCharsets.UTF_8));
+    }
+}
+
+// src/main/java/com/letterlover/client/network/DeflateExtension.java
+package com.letterlover.client.network;
+
+import org.java_websocket.extensions.ExtensionRequestData;
+import org.java_websocket.extensions.IExtension;
+import org.java_websocket.extensions.permessage_deflate.PerMessageDeflateExtension;
+
+import java.util.Map;
+
+// The stock extension always offers both no_context_takeover parameters, reads them from the server's
+// point of view and forgets its settings in copyInstance(), which every new connection goes through
+final class DeflateExtension extends PerMessageDeflateExtension {
+
+    private static final String PERMESSAGE_DEFLATE = "permessage-deflate";
+    private static final String SERVER_NO_CONTEXT_TAKEOVER = "server_no_context_takeover";
+    private static final String CLIENT_NO_CONTEXT_TAKEOVER = "client_no_context_takeover";
+
+    private final boolean contextTakeover;
+
+    DeflateExtension(int threshold, boolean contextTakeover) {
+        this.contextTakeover = contextTakeover;
+        setThreshold(threshold);
+    }
+
+    @Override
+    public String getProvidedExtensionAsClient() {
+        return contextTakeover ? PERMESSAGE_DEFLATE
+                : PERMESSAGE_DEFLATE + "; " + SERVER_NO_CONTEXT_TAKEOVER + "; " + CLIENT_NO_CONTEXT_TAKEOVER;
+    }
+
+    // The base class resets its deflater on serverNoContextTakeover and its inflater on clientNoContextTakeover,
+    // so on the client each flag takes the server's answer for the opposite direction
+    @Override
+    public boolean acceptProvidedExtensionAsClient(String inputExtension) {
+        for (String extension : inputExtension.split(",")) {
+            ExtensionRequestData data = ExtensionRequestData.parseExtensionRequest(extension);
+            if (!PERMESSAGE_DEFLATE.equalsIgnoreCase(data.getExtensionName())) {
+                continue;
+            }
+            Map<String, String> parameters = data.getExtensionParameters();
+            setServerNoContextTakeover(parameters.containsKey(CLIENT_NO_CONTEXT_TAKEOVER));
+            setClientNoContextTakeover(parameters.containsKey(SERVER_NO_CONTEXT_TAKEOVER));
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public IExtension copyInstance() {
+        return new DeflateExtension(getThreshold(), contextTakeover);
+    }
+}
+
+// src/main/java/com/letterlover/client/view/CardViewCache.java
+package com.letterlover.client.view;
+
+import com.letterlover.common.model.CardType;
+import javafx.animation.ScaleTransition;
+import javafx.geometry.Pos;
+import javafx.scene.CacheHint;
+import javafx.scene.control.Label;
+import javafx.scene.layout.VBox;
+import javafx.util.Duration;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * One prebuilt card node per {@link CardType} and detail level. All styling comes from the
+ * {@code .card} classes in style.css, and each node is cached as a bitmap so its dropshadow is
+ * rasterized once instead of on every repaint. Re-rendering the hand hands back the same node.
+ * Must only be used on the FX application thread.
+ */
+public class CardViewCache {
+
+    private record Entry(VBox node, ScaleTransition hover) {
+    }
+
+    private final Map<CardType, Entry> detailed = new EnumMap<>(CardType.class);
+    private final Map<CardType, Entry> compact = new EnumMap<>(CardType.class);
+
+    // A node has at most one parent, so adding it elsewhere moves it out of its previous container
+    public VBox get(CardType type, boolean showDetails) {
+        Entry entry = (showDetails ? detailed : compact).computeIfAbsent(type, t -> build(t, showDetails));
+        entry.hover().stop();
+        entry.node().setScaleX(1.0);
+        entry.node().setScaleY(1.0);
+        return entry.node();
+    }
+
+    private static Entry build(CardType type, boolean showDetails) {
+        VBox cardBox = new VBox(10);
+        cardBox.setAlignment(Pos.CENTER);
+        cardBox.setPrefSize(150, 220);
+        cardBox.getStyleClass().addAll("card", "card-" + type.name().toLowerCase(Locale.ROOT));
+
+        cardBox.getChildren().addAll(
+                label(type.getIcon(), "card-icon"),
+                label(type.getName(), "card-name"),
+                label("Wert: " + type.getValue(), "card-value"));
+
+        if (showDetails) {
+            Label ability = label(type.getAbility(), "card-ability");
+            ability.setWrapText(true);
+            ability.setMaxWidth(120);
+            cardBox.getChildren().add(ability);
+        }
+
+        // The hover zoom only scales the cached bitmap
+        cardBox.setCache(true);
+        cardBox.setCacheHint(CacheHint.SCALE);
+
+        ScaleTransition hover = new ScaleTransition(Duration.millis(200), cardBox);
+        cardBox.setOnMouseEntered(e -> zoom(hover, 1.1));
+        cardBox.setOnMouseExited(e -> zoom(hover, 1.0));
+        return new Entry(cardBox, hover);
+    }
+
+    private static Label label(String text, String styleClass) {
+        Label label = new Label(text);
+        label.getStyleClass().add(styleClass);
+        return label;
+    }
+
+    private static void zoom(ScaleTransition hover, double scale) {
+        hover.stop();
+        hover.setToX(scale);
+        hover.setToY(scale);
+        hover.play();
     }
 }
 
 // src/main/java/com/letterlover/client/controller/MainController.java
 package com.letterlover.client.controller;
 
+import com.letterlover.client.network.GameTransport;
 import com.letterlover.client.network.GameWebSocketClient;
+import com.letterlover.client.network.LocalGameTransport;
+import com.letterlover.client.view.CardViewCache;
 import com.letterlover.common.dto.*;
+import com.letterlover.common.engine.LegalMoves;
 import com.letterlover.common.model.*;
 import javafx.animation.*;
 import javafx.fxml.FXML;
 import javafx.geometry.Pos;
 import javafx.scene.control.*;
 import javafx.scene.layout.*;
-import javafx.scene.paint.Color;
 import javafx.scene.shape.Rectangle;
-import javafx.scene.text.Text;
-import javafx.util.Duration;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.*;
@@ -216,10 +835,11 @@ public class MainController {
     @FXML private Label currentPlayerLabel;
     @FXML private Label deckCountLabel;
     
-    private GameWebSocketClient webSocketClient;
+    private GameTransport transport;
     private String playerId;
     private String currentRoomCode;
     private GameState currentGameState;
+    private final CardViewCache cardViews = new CardViewCache();
 
     @FXML
     public void initialize() {
@@ -228,12 +848,15 @@ public class MainController {
         setupStyles();
     }
 
+    // -Dletterlover.mode=local plays in-process against the computer or hot-seat, without a server
     private void connectToServer() {
         try {
-            webSocketClient = new GameWebSocketClient("ws://localhost:8080");
-            webSocketClient.setGameStateHandler(this::updateGameState);
-            webSocketClient.setChatMessageHandler(this::addChatMessage);
-            webSocketClient.connect();
+            transport = "local".equalsIgnoreCase(System.getProperty("letterlover.mode"))
+                    ? new LocalGameTransport()
+                    : new GameWebSocketClient(System.getProperty("letterlover.server", "ws://localhost:8080"));
+            transport.setGameStateHandler(this::updateGameState);
+            transport.setChatMessageHandler(this::addChatMessage);
+            transport.connect();
         } catch (Exception e) {
             log.error("Failed to connect to server", e);
             showError("Verbindung zum Server fehlgeschlagen");
@@ -253,13 +876,7 @@ public class MainController {
             return;
         }
 
-        Map<String, String> request = Map.of(
-            "playerId", playerId,
-            "playerName", playerName
-        );
-        
-        // Send create room request
-        // In real implementation, this would go through WebSocket
+        transport.createRoom(playerId, playerName);
         showLobbyScreen();
     }
 
@@ -274,20 +891,21 @@ public class MainController {
         }
 
         currentRoomCode = roomCode;
-        Map<String, String> request = Map.of(
-            "playerId", playerId,
-            "playerName", playerName,
-            "roomCode", roomCode
-        );
+        // Locally each join seats another human at this screen, so it needs its own id
+        transport.joinRoom(roomCode, transport.isLocal() && currentGameState != null
+                ? UUID.randomUUID().toString() : playerId, playerName);
         
         showLobbyScreen();
     }
 
     @FXML
     private void onStartGame() {
+        if (currentGameState != null && transport.isLocal() && currentGameState.getPlayers().size() < 2) {
+            // Alone at a local table: play against the computer
+            transport.addBot(currentRoomCode);
+        }
         if (currentGameState != null && currentGameState.getPlayers().size() >= 2) {
-            Map<String, String> request = Map.of("roomCode", currentRoomCode);
-            // Send start game request
+            transport.startGame(currentRoomCode);
             showGameScreen();
         }
     }
@@ -300,15 +918,23 @@ public class MainController {
                 playerId,
                 playerNameField.getText(),
                 message,
-                System.currentTimeMillis()
+                System.currentTimeMillis(),
+                currentRoomCode
             );
-            webSocketClient.sendChatMessage(chatMsg);
+            transport.sendChatMessage(chatMsg);
             chatInputField.clear();
         }
     }
 
     private void updateGameState(GameState gameState) {
         this.currentGameState = gameState;
+        this.currentRoomCode = gameState.getRoomCode();
+        // Hot-seat: the screen always shows the hand of the human whose turn it is
+        Player current = gameState.getCurrentPlayer();
+        if (transport instanceof LocalGameTransport local && gameState.getPhase() == GameState.GamePhase.PLAYING
+                && current != null && !local.isBot(current.getId())) {
+            playerId = current.getId();
+        }
         
         // Update UI based on game state
         if (gameState.getPhase() == GameState.GamePhase.WAITING) {
@@ -359,7 +985,7 @@ public class MainController {
             .orElse(null);
         
         if (player != null && player.getCurrentCard() != null) {
-            VBox cardBox = createCardView(player.getCurrentCard(), true);
+            VBox cardBox = cardViews.get(player.getCurrentCard().getType(), true);
             playerHandBox.getChildren().add(cardBox);
             
             // Add play button if it's player's turn
@@ -371,59 +997,6 @@ public class MainController {
         }
     }
 
-    private VBox createCardView(Card card, boolean showDetails) {
-        VBox cardBox = new VBox(10);
-        cardBox.setAlignment(Pos.CENTER);
-        cardBox.setPrefSize(150, 220);
-        cardBox.setStyle(String.format(
-            "-fx-background-color: %s; " +
-            "-fx-background-radius: 15; " +
-            "-fx-border-color: gold; " +
-            "-fx-border-width: 2; " +
-            "-fx-border-radius: 15; " +
-            "-fx-padding: 15; " +
-            "-fx-effect: dropshadow(gaussian, rgba(0,0,0,0.5), 10, 0, 0, 5);",
-            card.getType().getColor()
-        ));
-        
-        // Card icon
-        Label iconLabel = new Label(card.getType().getIcon());
-        iconLabel.setStyle("-fx-font-size: 48px;");
-        
-        // Card name
-        Label nameLabel = new Label(card.getName());
-        nameLabel.setStyle("-fx-text-fill: white; -fx-font-size: 16px; -fx-font-weight: bold;");
-        
-        // Card value
-        Label valueLabel = new Label("Wert: " + card.getValue());
-        valueLabel.setStyle("-fx-text-fill: white; -fx-font-size: 14px;");
-        
-        cardBox.getChildren().addAll(iconLabel, nameLabel, valueLabel);
-        
-        if (showDetails) {
-            Text abilityText = new Text(card.getType().getAbility());
-            abilityText.setWrappingWidth(120);
-            abilityText.setFill(Color.WHITE);
-            abilityText.setStyle("-fx-font-size: 11px;");
-            cardBox.getChildren().add(abilityText);
-        }
-        
-        // Animation
-        ScaleTransition st = new ScaleTransition(Duration.millis(200), cardBox);
-        cardBox.setOnMouseEntered(e -> {
-            st.setToX(1.1);
-            st.setToY(1.1);
-            st.play();
-        });
-        cardBox.setOnMouseExited(e -> {
-            st.setToX(1.0);
-            st.setToY(1.0);
-            st.play();
-        });
-        
-        return cardBox;
-    }
-
     private void updateOtherPlayers(GameState gameState) {
         otherPlayersPane.getChildren().clear();
         
@@ -488,7 +1061,8 @@ public class MainController {
             action.setPlayerId(playerId);
             action.setCardId(card.getId());
             action.setCardType(card.getType());
-            webSocketClient.sendAction(action);
+            action.setRoomCode(currentRoomCode);
+            transport.sendAction(action);
         }
     }
 
@@ -500,14 +1074,25 @@ public class MainController {
         VBox content = new VBox(10);
         ToggleGroup group = new ToggleGroup();
         
-        currentGameState.getPlayers().stream()
-            .filter(p -> !p.getId().equals(playerId) && !p.isEliminated() && !p.isProtected())
-            .forEach(p -> {
-                RadioButton rb = new RadioButton(p.getName());
+        // Targets come from the server's legal-move mask instead of being recomputed here
+        long legalMoves = currentGameState.getLegalMoves();
+        List<Player> players = currentGameState.getPlayers();
+        for (int seat = 0; seat < players.size(); seat++) {
+            Player p = players.get(seat);
+            boolean self = p.getId().equals(playerId);
+            if (LegalMoves.allowsTarget(legalMoves, seat) && (!self || card.getType() == CardType.PRINCE)) {
+                RadioButton rb = new RadioButton(self ? p.getName() + " (du)" : p.getName());
                 rb.setToggleGroup(group);
                 rb.setUserData(p.getId());
                 content.getChildren().add(rb);
-            });
+            }
+        }
+        
+        if (content.getChildren().isEmpty()) {
+            // Nobody can be targeted, so the card is played without effect
+            sendPlayCardAction(card, null, null);
+            return;
+        }
         
         dialog.getDialogPane().setContent(content);
         dialog.getDialogPane().getButtonTypes().addAll(ButtonType.OK, ButtonType.CANCEL);
@@ -529,10 +1114,11 @@ public class MainController {
     }
 
     private void showGuessDialog(Card card, String targetId) {
+        int seat = LegalMoves.seatOf(currentGameState, targetId);
         ChoiceDialog<CardType> dialog = new ChoiceDialog<>(
             CardType.PRIEST,
             Arrays.stream(CardType.values())
-                .filter(ct -> ct != CardType.GUARD)
+                .filter(ct -> LegalMoves.allows(currentGameState.getLegalMoves(), seat, ct))
                 .toList()
         );
         dialog.setTitle("Karte raten");
@@ -551,7 +1137,8 @@ public class MainController {
         action.setCardType(card.getType());
         action.setTargetPlayerId(targetId);
         action.setGuessedCard(guess);
-        webSocketClient.sendAction(action);
+        action.setRoomCode(currentRoomCode);
+        transport.sendAction(action);
     }
 
     private void addChatMessage(ChatMessage message) {
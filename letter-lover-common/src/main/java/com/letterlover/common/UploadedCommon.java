@@ -76,6 +76,8 @@ public enum CardType {
 // src/main/java/com/letterlover/common/model/Card.java
 package com.letterlover.common.model;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -84,12 +86,14 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 public class Card {
-    private String id;
+    private static final CardType[] TYPES = CardType.values();
+
+    // Position of the card in the round's unshuffled deck, which identifies it within the round
+    private int slot;
     private CardType type;
 
-    public Card(CardType type) {
-        this.id = java.util.UUID.randomUUID().toString();
-        this.type = type;
+    public String getId() {
+        return Integer.toString(slot);
     }
 
     public int getValue() {
@@ -99,6 +103,17 @@ public class Card {
     public String getName() {
         return type.getName();
     }
+
+    // On the wire a card is a single number: slot * number of card types + type ordinal
+    @JsonValue
+    public int toCode() {
+        return slot * TYPES.length + type.ordinal();
+    }
+
+    @JsonCreator
+    public static Card fromCode(int code) {
+        return new Card(code / TYPES.length, TYPES[code % TYPES.length]);
+    }
 }
 
 // src/main/java/com/letterlover/common/model/Player.java
@@ -132,7 +147,7 @@ public class Player {
 
     public void discardCard(Card card) {
         this.discardedCards.add(card);
-        if (this.currentCard != null && this.currentCard.getId().equals(card.getId())) {
+        if (this.currentCard != null && this.currentCard.getSlot() == card.getSlot()) {
             this.currentCard = null;
         }
     }
@@ -166,6 +181,12 @@ public class GameState {
     private int roundNumber;
     private String lastAction;
     private List<String> gameLog = new ArrayList<>();
+    // Moves the current player may make, encoded by LegalMoves
+    private long legalMoves;
+    // Id of the RuleSet this room plays by
+    private String ruleSet = "classic";
+    // Players not yet eliminated this round, maintained by eliminate
+    private int activeCount;
 
     public enum GamePhase {
         WAITING, PLAYING, ROUND_END, GAME_END
@@ -178,10 +199,21 @@ public class GameState {
         return players.get(currentPlayerIndex);
     }
 
+    // Bounded by the table size so a stale active count can never make it spin
     public void nextPlayer() {
-        do {
+        for (int step = 0; step < players.size(); step++) {
             currentPlayerIndex = (currentPlayerIndex + 1) % players.size();
-        } while (getCurrentPlayer().isEliminated() && getActivePlayers().size() > 1);
+            if (!getCurrentPlayer().isEliminated()) {
+                return;
+            }
+        }
+    }
+
+    public void eliminate(Player player) {
+        if (!player.isEliminated()) {
+            player.setEliminated(true);
+            activeCount--;
+        }
     }
 
     public List<Player> getActivePlayers() {
@@ -195,6 +227,366 @@ public class GameState {
     }
 }
 
+// src/main/java/com/letterlover/common/model/GameStateCodec.java
+package com.letterlover.common.model;
+
+import java.io.*;
+import java.util.List;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+// Deflated binary form of a GameState: cards as their compact code, strings as modified UTF-8
+public final class GameStateCodec {
+
+    private static final int VERSION = 2;
+    private static final int NO_CARD = -1;
+
+    private GameStateCodec() {
+    }
+
+    public static byte[] encode(GameState game) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+        try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes))) {
+            out.writeByte(VERSION);
+            out.writeUTF(game.getRoomCode());
+            out.writeUTF(game.getRuleSet());
+            out.writeByte(game.getPhase().ordinal());
+            out.writeShort(game.getRoundNumber());
+            out.writeByte(game.getCurrentPlayerIndex());
+            out.writeLong(game.getLegalMoves());
+            writeNullable(out, game.getLastAction());
+            writeCard(out, game.getBurnedCard());
+            writeCards(out, game.getDeck());
+            out.writeByte(game.getPlayers().size());
+            for (Player p : game.getPlayers()) {
+                out.writeUTF(p.getId());
+                out.writeUTF(p.getName());
+                out.writeShort(p.getTokens());
+                out.writeBoolean(p.isProtected());
+                out.writeBoolean(p.isEliminated());
+                writeCard(out, p.getCurrentCard());
+                writeCards(out, p.getDiscardedCards());
+            }
+            out.writeInt(game.getGameLog().size());
+            for (String entry : game.getGameLog()) {
+                out.writeUTF(entry);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to encode room " + game.getRoomCode(), e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static GameState decode(byte[] data) {
+        try (DataInputStream in = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(data)))) {
+            int version = in.readByte();
+            if (version != VERSION) {
+                throw new IllegalStateException("Unsupported game state version " + version);
+            }
+            GameState game = new GameState();
+            game.setRoomCode(in.readUTF());
+            game.setRuleSet(in.readUTF());
+            game.setPhase(GameState.GamePhase.values()[in.readByte()]);
+            game.setRoundNumber(in.readShort());
+            game.setCurrentPlayerIndex(in.readByte());
+            game.setLegalMoves(in.readLong());
+            game.setLastAction(readNullable(in));
+            game.setBurnedCard(readCard(in));
+            readCards(in, game.getDeck());
+            int players = in.readByte();
+            for (int i = 0; i < players; i++) {
+                Player p = new Player(in.readUTF(), in.readUTF());
+                p.setTokens(in.readShort());
+                p.setProtected(in.readBoolean());
+                p.setEliminated(in.readBoolean());
+                p.setCurrentCard(readCard(in));
+                readCards(in, p.getDiscardedCards());
+                game.getPlayers().add(p);
+                if (!p.isEliminated()) {
+                    game.setActiveCount(game.getActiveCount() + 1);
+                }
+            }
+            int entries = in.readInt();
+            for (int i = 0; i < entries; i++) {
+                game.getGameLog().add(in.readUTF());
+            }
+            return game;
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to decode game state", e);
+        }
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeCard(DataOutputStream out, Card card) throws IOException {
+        out.writeShort(card == null ? NO_CARD : card.toCode());
+    }
+
+    private static Card readCard(DataInputStream in) throws IOException {
+        int code = in.readShort();
+        return code == NO_CARD ? null : Card.fromCode(code);
+    }
+
+    private static void writeCards(DataOutputStream out, List<Card> cards) throws IOException {
+        out.writeByte(cards.size());
+        for (Card card : cards) {
+            out.writeShort(card.toCode());
+        }
+    }
+
+    private static void readCards(DataInputStream in, List<Card> cards) throws IOException {
+        int count = in.readByte();
+        for (int i = 0; i < count; i++) {
+            cards.add(readCard(in));
+        }
+    }
+}
+
+// src/main/java/com/letterlover/common/util/PersistentVector.java
+package com.letterlover.common.util;
+
+import java.util.*;
+
+// Immutable 32-way trie with a tail buffer: appends and updates copy only the path to the changed leaf
+public final class PersistentVector<T> extends AbstractList<T> implements RandomAccess {
+
+    private static final int BITS = 5;
+    private static final int WIDTH = 1 << BITS;
+    private static final int MASK = WIDTH - 1;
+
+    private static final PersistentVector<?> EMPTY =
+            new PersistentVector<>(0, BITS, new Object[WIDTH], new Object[0]);
+
+    private final int size;
+    private final int shift;
+    private final Object[] root;
+    private final Object[] tail;
+
+    private PersistentVector(int size, int shift, Object[] root, Object[] tail) {
+        this.size = size;
+        this.shift = shift;
+        this.root = root;
+        this.tail = tail;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T> PersistentVector<T> empty() {
+        return (PersistentVector<T>) EMPTY;
+    }
+
+    public static <T> PersistentVector<T> of(Collection<? extends T> items) {
+        PersistentVector<T> vector = empty();
+        for (T item : items) {
+            vector = vector.conj(item);
+        }
+        return vector;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int index) {
+        return (T) leafFor(Objects.checkIndex(index, size))[index & MASK];
+    }
+
+    public PersistentVector<T> conj(T value) {
+        if (size - tailOffset() < WIDTH) {
+            Object[] newTail = Arrays.copyOf(tail, tail.length + 1);
+            newTail[tail.length] = value;
+            return new PersistentVector<>(size + 1, shift, root, newTail);
+        }
+
+        Object[] newRoot;
+        int newShift = shift;
+        if ((size >>> BITS) > (1 << shift)) {
+            newRoot = new Object[WIDTH];
+            newRoot[0] = root;
+            newRoot[1] = newPath(shift, tail);
+            newShift += BITS;
+        } else {
+            newRoot = pushTail(shift, root, tail);
+        }
+        return new PersistentVector<>(size + 1, newShift, newRoot, new Object[]{value});
+    }
+
+    public PersistentVector<T> assoc(int index, T value) {
+        Objects.checkIndex(index, size);
+        if (index >= tailOffset()) {
+            Object[] newTail = tail.clone();
+            newTail[index & MASK] = value;
+            return new PersistentVector<>(size, shift, root, newTail);
+        }
+        return new PersistentVector<>(size, shift, assoc(shift, root, index, value), tail);
+    }
+
+    private int tailOffset() {
+        return size < WIDTH ? 0 : ((size - 1) >>> BITS) << BITS;
+    }
+
+    private Object[] leafFor(int index) {
+        if (index >= tailOffset()) {
+            return tail;
+        }
+        Object[] node = root;
+        for (int level = shift; level > 0; level -= BITS) {
+            node = (Object[]) node[(index >>> level) & MASK];
+        }
+        return node;
+    }
+
+    private Object[] pushTail(int level, Object[] parent, Object[] tailNode) {
+        int subIndex = ((size - 1) >>> level) & MASK;
+        Object[] result = parent.clone();
+        Object[] inserted;
+        if (level == BITS) {
+            inserted = tailNode;
+        } else {
+            Object[] child = (Object[]) parent[subIndex];
+            inserted = child != null ? pushTail(level - BITS, child, tailNode) : newPath(level - BITS, tailNode);
+        }
+        result[subIndex] = inserted;
+        return result;
+    }
+
+    private static Object[] newPath(int level, Object[] node) {
+        if (level == 0) {
+            return node;
+        }
+        Object[] path = new Object[WIDTH];
+        path[0] = newPath(level - BITS, node);
+        return path;
+    }
+
+    private static Object[] assoc(int level, Object[] node, int index, Object value) {
+        Object[] result = node.clone();
+        if (level == 0) {
+            result[index & MASK] = value;
+        } else {
+            int subIndex = (index >>> level) & MASK;
+            result[subIndex] = assoc(level - BITS, (Object[]) node[subIndex], index, value);
+        }
+        return result;
+    }
+}
+
+// src/main/java/com/letterlover/common/model/PlayerSnapshot.java
+package com.letterlover.common.model;
+
+import com.letterlover.common.util.PersistentVector;
+import lombok.Value;
+
+import java.util.List;
+
+@Value
+public class PlayerSnapshot {
+    String id;
+    String name;
+    Card currentCard;
+    PersistentVector<Card> discardedCards;
+    boolean isProtected;
+    boolean isEliminated;
+    int tokens;
+
+    public static PlayerSnapshot from(Player player, PlayerSnapshot previous) {
+        PersistentVector<Card> discards = shareDiscards(player.getDiscardedCards(),
+                previous != null ? previous.discardedCards : PersistentVector.empty());
+
+        if (previous != null
+                && previous.currentCard == player.getCurrentCard()
+                && previous.discardedCards == discards
+                && previous.isProtected == player.isProtected()
+                && previous.isEliminated == player.isEliminated()
+                && previous.tokens == player.getTokens()
+                && previous.name.equals(player.getName())) {
+            return previous;
+        }
+        return new PlayerSnapshot(player.getId(), player.getName(), player.getCurrentCard(), discards,
+                player.isProtected(), player.isEliminated(), player.getTokens());
+    }
+
+    private static PersistentVector<Card> shareDiscards(List<Card> current, PersistentVector<Card> previous) {
+        // Discards only grow within a round; a new round starts over with new card instances
+        int shared = previous.size();
+        if (shared > current.size() || (shared > 0 && current.get(shared - 1) != previous.get(shared - 1))) {
+            previous = PersistentVector.empty();
+            shared = 0;
+        }
+        PersistentVector<Card> discards = previous;
+        for (int i = shared; i < current.size(); i++) {
+            discards = discards.conj(current.get(i));
+        }
+        return discards;
+    }
+}
+
+// src/main/java/com/letterlover/common/model/GameSnapshot.java
+package com.letterlover.common.model;
+
+import com.letterlover.common.util.PersistentVector;
+import lombok.Value;
+
+import java.util.List;
+
+@Value
+public class GameSnapshot {
+    String roomCode;
+    PersistentVector<PlayerSnapshot> players;
+    List<Card> deck;
+    Card burnedCard;
+    int currentPlayerIndex;
+    GameState.GamePhase phase;
+    int roundNumber;
+    String lastAction;
+    PersistentVector<String> gameLog;
+    long legalMoves;
+    String ruleSet;
+
+    public static GameSnapshot from(GameState game, GameSnapshot previous) {
+        PersistentVector<PlayerSnapshot> players = previous != null
+                && previous.players.size() == game.getPlayers().size()
+                ? previous.players
+                : PersistentVector.empty();
+        for (int i = 0; i < game.getPlayers().size(); i++) {
+            Player player = game.getPlayers().get(i);
+            if (i >= players.size()) {
+                players = players.conj(PlayerSnapshot.from(player, null));
+                continue;
+            }
+            PlayerSnapshot before = players.get(i);
+            PlayerSnapshot after = PlayerSnapshot.from(player, before.getId().equals(player.getId()) ? before : null);
+            if (after != before) {
+                players = players.assoc(i, after);
+            }
+        }
+
+        PersistentVector<String> log = previous != null ? previous.gameLog : PersistentVector.empty();
+        List<String> entries = game.getGameLog();
+        if (entries.size() < log.size()) {
+            log = PersistentVector.empty();
+        }
+        for (int i = log.size(); i < entries.size(); i++) {
+            log = log.conj(entries.get(i));
+        }
+
+        return new GameSnapshot(game.getRoomCode(), players, List.copyOf(game.getDeck()), game.getBurnedCard(),
+                game.getCurrentPlayerIndex(), game.getPhase(), game.getRoundNumber(), game.getLastAction(), log,
+                game.getLegalMoves(), game.getRuleSet());
+    }
+}
+
 // src/main/java/com/letterlover/common/dto/GameAction.java
 package com.letterlover.common.dto;
 
@@ -213,6 +605,8 @@ public class GameAction {
     private CardType cardType;
     private String targetPlayerId;
     private CardType guessedCard;
+    // The server queues and applies the action in this room
+    private String roomCode;
 
     public enum ActionType {
         PLAY_CARD, DRAW_CARD, START_GAME, JOIN_ROOM, LEAVE_ROOM, CHAT_MESSAGE
@@ -234,6 +628,7 @@ public class ChatMessage {
     private String playerName;
     private String message;
     private long timestamp;
+    private String roomCode;
 }
 
 // src/main/java/com/letterlover/common/dto/RoomInfo.java
@@ -252,4 +647,1038 @@ public class RoomInfo {
     private int playerCount;
     private int maxPlayers = 4;
     private boolean isGameStarted;
+    // 0 disables the turn clock
+    private int turnSeconds;
+}
+
+// src/main/java/com/letterlover/common/dto/ArchivedGame.java
+package com.letterlover.common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ArchivedGame {
+    private String roomCode;
+    private String winnerId;
+    private int rounds;
+    private long finishedAt;
+    private List<Standing> standings = new ArrayList<>();
+    private List<String> gameLog = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Standing {
+        private String playerId;
+        private String playerName;
+        private int tokens;
+    }
+}
+
+// src/main/java/com/letterlover/common/dto/CardCatalog.java
+package com.letterlover.common.dto;
+
+import com.letterlover.common.model.CardType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CardCatalog {
+    // Bump whenever CardType metadata or the card wire code changes
+    public static final int VERSION = 1;
+
+    private int version;
+    private List<Entry> cards = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Entry {
+        private int ordinal;
+        private int value;
+        private String name;
+        private int count;
+        private String icon;
+        private String color;
+        private String ability;
+    }
+
+    public static CardCatalog current() {
+        List<Entry> entries = new ArrayList<>();
+        for (CardType type : CardType.values()) {
+            entries.add(new Entry(type.ordinal(), type.getValue(), type.getName(), type.getCount(),
+                    type.getIcon(), type.getColor(), type.getAbility()));
+        }
+        return new CardCatalog(VERSION, entries);
+    }
+}
+
+// src/main/java/com/letterlover/common/dto/LeaderboardEntry.java
+package com.letterlover.common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaderboardEntry {
+    private int rank;
+    private String playerId;
+    private String playerName;
+    private int gamesWon;
+    private int tokens;
+    private int roundsPlayed;
+}
+
+// src/main/java/com/letterlover/common/dto/LobbyUpdate.java
+package com.letterlover.common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LobbyUpdate {
+    private UpdateType type;
+    private RoomInfo room;
+
+    public enum UpdateType {
+        OPENED, UPDATED, CLOSED
+    }
+}
+
+// src/main/java/com/letterlover/common/dto/TournamentStanding.java
+package com.letterlover.common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TournamentStanding {
+    private String playerId;
+    private String playerName;
+    private int points;
+    private int tokens;
+    private boolean isEliminated;
+}
+
+// src/main/java/com/letterlover/common/engine/GameEventListener.java
+package com.letterlover.common.engine;
+
+import com.letterlover.common.dto.GameAction;
+import com.letterlover.common.model.*;
+
+import java.util.List;
+
+public interface GameEventListener {
+
+    GameEventListener NONE = new GameEventListener() {};
+
+    default void onRoundStart(GameState game) {}
+
+    default void onTurnStart(GameState game) {}
+
+    default void onCardPlayed(GameState game, Player player, GameAction action) {}
+
+    default void onBlocked(GameState game, Player player, Player target, CardType cardType) {}
+
+    default void onGuard(GameState game, Player player, Player target, CardType guess, boolean correct) {}
+
+    default void onPriest(GameState game, Player player, Player target, Card seen) {}
+
+    default void onBaron(GameState game, Player player, Player target, int playerValue, int targetValue) {}
+
+    default void onPrince(GameState game, Player player, Player target, Card discarded) {}
+
+    default void onKing(GameState game, Player player, Player target) {}
+
+    default void onRoundEnd(GameState game, Player winner, List<Player> contenders) {}
+
+    default void onGameEnd(GameState game, Player winner) {}
+
+    // Not fired by the engine: the server drops a room in any phase, also when every player has left
+    default void onRoomRemoved(String roomCode) {}
+
+    static GameEventListener of(List<? extends GameEventListener> listeners) {
+        if (listeners.isEmpty()) {
+            return NONE;
+        }
+        if (listeners.size() == 1) {
+            return listeners.get(0);
+        }
+        GameEventListener[] all = listeners.toArray(new GameEventListener[0]);
+        return new GameEventListener() {
+            @Override
+            public void onRoundStart(GameState game) {
+                for (GameEventListener l : all) l.onRoundStart(game);
+            }
+
+            @Override
+            public void onTurnStart(GameState game) {
+                for (GameEventListener l : all) l.onTurnStart(game);
+            }
+
+            @Override
+            public void onCardPlayed(GameState game, Player player, GameAction action) {
+                for (GameEventListener l : all) l.onCardPlayed(game, player, action);
+            }
+
+            @Override
+            public void onBlocked(GameState game, Player player, Player target, CardType cardType) {
+                for (GameEventListener l : all) l.onBlocked(game, player, target, cardType);
+            }
+
+            @Override
+            public void onGuard(GameState game, Player player, Player target, CardType guess, boolean correct) {
+                for (GameEventListener l : all) l.onGuard(game, player, target, guess, correct);
+            }
+
+            @Override
+            public void onPriest(GameState game, Player player, Player target, Card seen) {
+                for (GameEventListener l : all) l.onPriest(game, player, target, seen);
+            }
+
+            @Override
+            public void onBaron(GameState game, Player player, Player target, int playerValue, int targetValue) {
+                for (GameEventListener l : all) l.onBaron(game, player, target, playerValue, targetValue);
+            }
+
+            @Override
+            public void onPrince(GameState game, Player player, Player target, Card discarded) {
+                for (GameEventListener l : all) l.onPrince(game, player, target, discarded);
+            }
+
+            @Override
+            public void onKing(GameState game, Player player, Player target) {
+                for (GameEventListener l : all) l.onKing(game, player, target);
+            }
+
+            @Override
+            public void onRoundEnd(GameState game, Player winner, List<Player> contenders) {
+                for (GameEventListener l : all) l.onRoundEnd(game, winner, contenders);
+            }
+
+            @Override
+            public void onGameEnd(GameState game, Player winner) {
+                for (GameEventListener l : all) l.onGameEnd(game, winner);
+            }
+
+            @Override
+            public void onRoomRemoved(String roomCode) {
+                for (GameEventListener l : all) l.onRoomRemoved(roomCode);
+            }
+        };
+    }
+}
+
+// src/main/java/com/letterlover/common/engine/GameEngine.java
+package com.letterlover.common.engine;
+
+import com.letterlover.common.dto.GameAction;
+import com.letterlover.common.model.*;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+public class GameEngine {
+
+    private final GameEventListener listener;
+    private final boolean recordLog;
+
+    public GameEngine() {
+        this(GameEventListener.NONE, true);
+    }
+
+    public GameEngine(GameEventListener listener, boolean recordLog) {
+        this.listener = listener;
+        this.recordLog = recordLog;
+    }
+
+    public static List<Card> newDeck() {
+        return RuleSets.classic().newDeck();
+    }
+
+    public void startNewRound(GameState game, List<Card> shuffledDeck) {
+        game.setRoundNumber(game.getRoundNumber() + 1);
+        game.setPhase(GameState.GamePhase.PLAYING);
+        game.setCurrentPlayerIndex(0);
+
+        // Reset players
+        game.getPlayers().forEach(Player::resetForNewRound);
+        game.setActiveCount(game.getPlayers().size());
+
+        game.setDeck(shuffledDeck);
+
+        // Burn one card
+        game.setBurnedCard(draw(game));
+
+        // Deal initial cards
+        for (Player player : game.getPlayers()) {
+            player.drawCard(draw(game));
+        }
+
+        game.setLegalMoves(LegalMoves.compute(game));
+        log(game, () -> "Neue Runde gestartet! " + game.getPlayers().size() + " Spieler.");
+        listener.onRoundStart(game);
+        listener.onTurnStart(game);
+    }
+
+    // Everything below is constant-time per action: the actor is the current seat, the target is resolved
+    // once, effects are an array lookup and only the player whose turn starts loses protection
+    public void playCard(GameState game, GameAction action) {
+        Player player = game.getCurrentPlayer();
+        if (player == null || !player.getId().equals(action.getPlayerId())) {
+            throw new IllegalStateException("Not your turn");
+        }
+
+        Card playedCard = player.getCurrentCard();
+        if (!playedCard.getType().equals(action.getCardType())) {
+            throw new IllegalStateException("Invalid card");
+        }
+
+        int targetSeat = action.getTargetPlayerId() == null
+                ? game.getCurrentPlayerIndex()
+                : LegalMoves.seatOf(game, action.getTargetPlayerId());
+        if (targetSeat < 0 || !LegalMoves.allows(game.getLegalMoves(), targetSeat, action.getGuessedCard())) {
+            throw new IllegalStateException("Illegal move");
+        }
+        Player target = targetSeat == game.getCurrentPlayerIndex() ? null : game.getPlayers().get(targetSeat);
+
+        player.discardCard(playedCard);
+        listener.onCardPlayed(game, player, action);
+
+        // A player holds one card, so the card they keep is the one drawn now. Drawing before the effect
+        // lets the Baron compare it, the King swap it and a Prince played on oneself discard it.
+        if (!game.getDeck().isEmpty()) {
+            player.drawCard(draw(game));
+        }
+        executeCardEffect(game, player, target, action);
+
+        // Check for round end
+        checkRoundEnd(game);
+
+        if (game.getPhase() == GameState.GamePhase.PLAYING) {
+            game.nextPlayer();
+            // Handmaid protection lasts until the protected player's own next turn
+            game.getCurrentPlayer().setProtected(false);
+            game.setLegalMoves(LegalMoves.compute(game));
+            listener.onTurnStart(game);
+        } else {
+            game.setLegalMoves(0);
+        }
+    }
+
+    // A player who left mid-round is out of the round; the turn moves on if it was theirs
+    public void forfeit(GameState game, Player player) {
+        if (game.getPhase() != GameState.GamePhase.PLAYING || player.isEliminated()) {
+            return;
+        }
+        boolean wasCurrent = game.getCurrentPlayer() == player;
+        game.eliminate(player);
+        log(game, () -> player.getName() + " hat das Spiel verlassen.");
+        checkRoundEnd(game);
+
+        if (game.getPhase() != GameState.GamePhase.PLAYING) {
+            game.setLegalMoves(0);
+        } else if (wasCurrent) {
+            game.nextPlayer();
+            game.getCurrentPlayer().setProtected(false);
+            game.setLegalMoves(LegalMoves.compute(game));
+            listener.onTurnStart(game);
+        } else {
+            game.setLegalMoves(LegalMoves.compute(game));
+        }
+    }
+
+    private void executeCardEffect(GameState game, Player player, Player target, GameAction action) {
+        CardType cardType = action.getCardType();
+        if (target == null && cardType.requiresTarget()) {
+            Player shielded = shieldedOpponent(game, player);
+            if (shielded != null) {
+                log(game, () -> player.getName() + " versuchte " + shielded.getName() +
+                                " anzugreifen, aber sie ist geschützt!");
+                listener.onBlocked(game, player, shielded, cardType);
+            }
+        }
+        RuleSets.get(game.getRuleSet()).effect(cardType).apply(this, game, player, target, action);
+    }
+
+    // LegalMoves never offers a protected seat, so Handmaid shows up as a targeted card played without a
+    // target because every other active player is protected. Returns one of them, or null if nobody was.
+    private static Player shieldedOpponent(GameState game, Player player) {
+        Player shielded = null;
+        for (Player p : game.getPlayers()) {
+            if (p == player || p.isEliminated()) {
+                continue;
+            }
+            if (!p.isProtected()) {
+                return null;
+            }
+            if (shielded == null) {
+                shielded = p;
+            }
+        }
+        return shielded;
+    }
+
+    private void checkRoundEnd(GameState game) {
+        // Only one player left or deck empty
+        if (game.getActiveCount() > 1 && !game.getDeck().isEmpty()) {
+            return;
+        }
+        Player winner = null;
+        List<Player> active = new ArrayList<>(game.getActiveCount());
+        for (Player p : game.getPlayers()) {
+            if (p.isEliminated()) continue;
+            active.add(p);
+            if (winner == null || handValue(p) > handValue(winner)) {
+                winner = p;
+            }
+        }
+        if (winner == null) {
+            throw new IllegalStateException("Round ended without an active player");
+        }
+        Player roundWinner = winner;
+        roundWinner.addToken();
+
+        game.setPhase(GameState.GamePhase.ROUND_END);
+        log(game, () -> "Runde beendet! " + roundWinner.getName() + " gewinnt und erhält einen Token!");
+        listener.onRoundEnd(game, roundWinner, active);
+
+        // Check for game winner
+        if (roundWinner.getTokens() >= RuleSets.get(game.getRuleSet()).requiredTokens(game.getPlayers().size())) {
+            game.setPhase(GameState.GamePhase.GAME_END);
+            log(game, () -> "SPIEL BEENDET! " + roundWinner.getName() + " gewinnt das Spiel!");
+            listener.onGameEnd(game, roundWinner);
+        }
+    }
+
+    // A player left empty-handed by a late Prince loses every comparison
+    static int handValue(Player player) {
+        return player.getCurrentCard() == null ? 0 : player.getCurrentCard().getValue();
+    }
+
+    // Cards are taken from the end of the deck so drawing never shifts the list
+    Card draw(GameState game) {
+        List<Card> deck = game.getDeck();
+        return deck.remove(deck.size() - 1);
+    }
+
+    GameEventListener listener() {
+        return listener;
+    }
+
+    void log(GameState game, Supplier<String> entry) {
+        if (recordLog) {
+            game.addLogEntry(entry.get());
+        }
+    }
+}
+
+// src/main/java/com/letterlover/common/engine/CardEffect.java
+package com.letterlover.common.engine;
+
+import com.letterlover.common.dto.GameAction;
+import com.letterlover.common.model.*;
+
+// What playing a card does once it has been discarded and its player has drawn the card they keep;
+// target is null when the card was played on nobody
+@FunctionalInterface
+public interface CardEffect {
+
+    CardEffect NONE = (engine, game, player, target, action) -> {};
+
+    void apply(GameEngine engine, GameState game, Player player, Player target, GameAction action);
+}
+
+// src/main/java/com/letterlover/common/engine/RuleSet.java
+package com.letterlover.common.engine;
+
+import com.letterlover.common.model.*;
+
+import java.util.*;
+
+// A deck, a seat range, the tokens needed to win and the effect of every card, all as data
+public final class RuleSet {
+
+    private final String id;
+    private final int minPlayers;
+    private final int maxPlayers;
+    private final int[] counts;
+    private final int[] requiredTokens;
+    private final CardEffect[] effects;
+
+    // requiredTokens[i] applies to tables of minPlayers + i seats; the last entry covers all larger ones
+    public RuleSet(String id, int minPlayers, int maxPlayers, Map<CardType, Integer> counts,
+                   int[] requiredTokens, Map<CardType, CardEffect> effects) {
+        if (maxPlayers > LegalMoves.MAX_SEATS) {
+            throw new IllegalStateException("At most " + LegalMoves.MAX_SEATS + " seats are supported");
+        }
+        this.id = id;
+        this.minPlayers = minPlayers;
+        this.maxPlayers = maxPlayers;
+        this.requiredTokens = requiredTokens.clone();
+        this.counts = new int[CardType.values().length];
+        this.effects = new CardEffect[CardType.values().length];
+        for (CardType type : CardType.values()) {
+            this.counts[type.ordinal()] = counts.getOrDefault(type, 0);
+            this.effects[type.ordinal()] = effects.getOrDefault(type, CardEffect.NONE);
+        }
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public int getMinPlayers() {
+        return minPlayers;
+    }
+
+    public int getMaxPlayers() {
+        return maxPlayers;
+    }
+
+    public int count(CardType type) {
+        return counts[type.ordinal()];
+    }
+
+    public CardEffect effect(CardType type) {
+        return effects[type.ordinal()];
+    }
+
+    public int requiredTokens(int players) {
+        int index = Math.max(0, players - minPlayers);
+        return requiredTokens[Math.min(index, requiredTokens.length - 1)];
+    }
+
+    public List<Card> newDeck() {
+        List<Card> deck = new ArrayList<>();
+        int slot = 0;
+        for (CardType type : CardType.values()) {
+            for (int i = 0; i < counts[type.ordinal()]; i++) {
+                deck.add(new Card(slot++, type));
+            }
+        }
+        return deck;
+    }
+
+    // The same rules with every card repeated copies times, for bigger tables
+    public RuleSet withCopies(String id, int copies, int minPlayers, int maxPlayers, int... requiredTokens) {
+        Map<CardType, Integer> scaled = new EnumMap<>(CardType.class);
+        Map<CardType, CardEffect> table = new EnumMap<>(CardType.class);
+        for (CardType type : CardType.values()) {
+            scaled.put(type, count(type) * copies);
+            table.put(type, effect(type));
+        }
+        return new RuleSet(id, minPlayers, maxPlayers, scaled, requiredTokens, table);
+    }
+}
+
+// src/main/java/com/letterlover/common/engine/RuleSets.java
+package com.letterlover.common.engine;
+
+import com.letterlover.common.model.*;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+public final class RuleSets {
+
+    public static final String CLASSIC = "classic";
+    public static final String GRAND = "grand";
+
+    private static final Map<String, RuleSet> REGISTRY = new ConcurrentHashMap<>();
+
+    static {
+        Map<CardType, Integer> counts = new EnumMap<>(CardType.class);
+        for (CardType type : CardType.values()) {
+            counts.put(type, type.getCount());
+        }
+        RuleSet classic = new RuleSet(CLASSIC, 2, 4, counts, new int[]{7, 5, 4}, ClassicEffects.table());
+        register(classic);
+        // Two full decks for five to eight players
+        register(classic.withCopies(GRAND, 2, 5, 8, 3));
+    }
+
+    private RuleSets() {
+    }
+
+    public static void register(RuleSet ruleSet) {
+        REGISTRY.put(ruleSet.getId(), ruleSet);
+    }
+
+    public static RuleSet get(String id) {
+        RuleSet ruleSet = REGISTRY.get(id == null ? CLASSIC : id);
+        if (ruleSet == null) {
+            throw new IllegalStateException("Unknown rule set: " + id);
+        }
+        return ruleSet;
+    }
+
+    public static RuleSet classic() {
+        return get(CLASSIC);
+    }
+
+    public static Collection<RuleSet> all() {
+        return Collections.unmodifiableCollection(REGISTRY.values());
+    }
+}
+
+// src/main/java/com/letterlover/common/engine/ClassicEffects.java
+package com.letterlover.common.engine;
+
+import com.letterlover.common.dto.GameAction;
+import com.letterlover.common.model.*;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+final class ClassicEffects {
+
+    private ClassicEffects() {
+    }
+
+    static Map<CardType, CardEffect> table() {
+        Map<CardType, CardEffect> effects = new EnumMap<>(CardType.class);
+        effects.put(CardType.GUARD, ClassicEffects::guard);
+        effects.put(CardType.PRIEST, ClassicEffects::priest);
+        effects.put(CardType.BARON, ClassicEffects::baron);
+        effects.put(CardType.HANDMAID, ClassicEffects::handmaid);
+        effects.put(CardType.PRINCE, ClassicEffects::prince);
+        effects.put(CardType.KING, ClassicEffects::king);
+        effects.put(CardType.COUNTESS, ClassicEffects::countess);
+        effects.put(CardType.PRINCESS, ClassicEffects::princess);
+        return effects;
+    }
+
+    private static void guard(GameEngine engine, GameState game, Player player, Player target, GameAction action) {
+        CardType guess = action.getGuessedCard();
+        if (target == null || guess == null) return;
+
+        boolean correct = target.getCurrentCard().getType() == guess;
+        if (correct) {
+            game.eliminate(target);
+            engine.log(game, () -> player.getName() + " hat richtig geraten! " +
+                                  target.getName() + " hatte " + guess.getName() + " und scheidet aus!");
+        } else {
+            engine.log(game, () -> player.getName() + " hat falsch geraten. " +
+                                  target.getName() + " hatte nicht " + guess.getName() + ".");
+        }
+        engine.listener().onGuard(game, player, target, guess, correct);
+    }
+
+    private static void priest(GameEngine engine, GameState game, Player player, Player target, GameAction action) {
+        if (target == null) return;
+        engine.log(game, () -> player.getName() + " hat die Karte von " +
+                              target.getName() + " angesehen: " + target.getCurrentCard().getName());
+        engine.listener().onPriest(game, player, target, target.getCurrentCard());
+    }
+
+    private static void baron(GameEngine engine, GameState game, Player player, Player target, GameAction action) {
+        if (target == null) return;
+
+        // The last card of the deck leaves its player empty-handed, which loses the duel
+        int playerValue = GameEngine.handValue(player);
+        int targetValue = GameEngine.handValue(target);
+
+        if (playerValue > targetValue) {
+            game.eliminate(target);
+            engine.log(game, () -> player.getName() + " (" + playerValue + ") hat " +
+                                  target.getName() + " (" + targetValue + ") im Duell besiegt!");
+        } else if (targetValue > playerValue) {
+            game.eliminate(player);
+            engine.log(game, () -> target.getName() + " (" + targetValue + ") hat " +
+                                  player.getName() + " (" + playerValue + ") im Duell besiegt!");
+        } else {
+            engine.log(game, () -> player.getName() + " und " + target.getName() +
+                                  " haben beide " + playerValue + ". Unentschieden!");
+        }
+        engine.listener().onBaron(game, player, target, playerValue, targetValue);
+    }
+
+    private static void handmaid(GameEngine engine, GameState game, Player player, Player target, GameAction action) {
+        player.setProtected(true);
+        engine.log(game, () -> player.getName() + " ist bis zum nächsten Zug geschützt!");
+    }
+
+    private static void prince(GameEngine engine, GameState game, Player player, Player target, GameAction action) {
+        Player victim = target != null ? target : player;
+
+        Card discarded = victim.getCurrentCard();
+        if (discarded == null) {
+            return;
+        }
+        victim.discardCard(discarded);
+
+        if (discarded.getType() == CardType.PRINCESS) {
+            game.eliminate(victim);
+            engine.log(game, () -> victim.getName() + " musste die Princess abwerfen und scheidet aus!");
+        } else {
+            if (!game.getDeck().isEmpty()) {
+                victim.drawCard(engine.draw(game));
+            } else {
+                // The burned card can be handed out once; after that the victim is left without a card
+                victim.drawCard(game.getBurnedCard());
+                game.setBurnedCard(null);
+            }
+            engine.log(game, () -> victim.getName() + " hat " + discarded.getName() +
+                                  " abgeworfen und eine neue Karte gezogen.");
+        }
+        engine.listener().onPrince(game, player, victim, discarded);
+    }
+
+    private static void king(GameEngine engine, GameState game, Player player, Player target, GameAction action) {
+        // Nothing to hand over once the deck has run out under the player
+        if (target == null || player.getCurrentCard() == null) return;
+
+        Card temp = player.getCurrentCard();
+        player.drawCard(target.getCurrentCard());
+        target.drawCard(temp);
+
+        engine.log(game, () -> player.getName() + " hat Karten mit " + target.getName() + " getauscht!");
+        engine.listener().onKing(game, player, target);
+    }
+
+    private static void countess(GameEngine engine, GameState game, Player player, Player target, GameAction action) {
+        engine.log(game, () -> player.getName() + " hat die Countess abgeworfen.");
+    }
+
+    private static void princess(GameEngine engine, GameState game, Player player, Player target, GameAction action) {
+        game.eliminate(player);
+        engine.log(game, () -> player.getName() + " hat die Princess abgeworfen und scheidet aus!");
+    }
+}
+
+// src/main/java/com/letterlover/common/engine/LegalMoves.java
+package com.letterlover.common.engine;
+
+import com.letterlover.common.dto.GameAction;
+import com.letterlover.common.model.*;
+
+import java.util.List;
+
+// A move is one bit: seat of the target * 8 + ordinal of the guessed card.
+// "No target" is encoded as the acting player's own seat, "no guess" as ordinal 0 (Guard is never a valid guess).
+public final class LegalMoves {
+
+    public static final int MAX_SEATS = 8;
+    private static final int GUESSES = 8;
+    private static final long ALL_GUESSES = 0xFEL;
+
+    private LegalMoves() {
+    }
+
+    public static long compute(GameState game) {
+        Player current = game.getCurrentPlayer();
+        if (current == null || current.getCurrentCard() == null) {
+            return 0;
+        }
+        CardType type = current.getCurrentCard().getType();
+        int self = game.getCurrentPlayerIndex();
+        long noTarget = 1L << (self * GUESSES);
+        if (!type.requiresTarget()) {
+            return noTarget;
+        }
+
+        long mask = 0;
+        List<Player> players = game.getPlayers();
+        for (int seat = 0; seat < players.size() && seat < MAX_SEATS; seat++) {
+            Player p = players.get(seat);
+            if (seat == self || p.isEliminated() || p.isProtected()) {
+                continue;
+            }
+            mask |= (type.requiresGuess() ? ALL_GUESSES : 1L) << (seat * GUESSES);
+        }
+        // The Prince may always be played on oneself; other cards only fizzle when nobody can be targeted
+        if (mask == 0 || type == CardType.PRINCE) {
+            mask |= noTarget;
+        }
+        return mask;
+    }
+
+    public static boolean allows(long mask, int seat, CardType guess) {
+        if (seat < 0 || seat >= MAX_SEATS) {
+            return false;
+        }
+        int bit = seat * GUESSES + (guess == null ? 0 : guess.ordinal());
+        return (mask & (1L << bit)) != 0;
+    }
+
+    public static boolean allowsTarget(long mask, int seat) {
+        return seat >= 0 && seat < MAX_SEATS && ((mask >>> (seat * GUESSES)) & 0xFF) != 0;
+    }
+
+    public static GameAction defaultMove(GameState game) {
+        long mask = game.getLegalMoves();
+        Player current = game.getCurrentPlayer();
+        if (mask == 0 || current == null) {
+            return null;
+        }
+        int bit = Long.numberOfTrailingZeros(mask);
+        int seat = bit / GUESSES;
+        int guess = bit % GUESSES;
+
+        GameAction action = new GameAction();
+        action.setType(GameAction.ActionType.PLAY_CARD);
+        action.setPlayerId(current.getId());
+        action.setCardId(current.getCurrentCard().getId());
+        action.setCardType(current.getCurrentCard().getType());
+        action.setTargetPlayerId(seat == game.getCurrentPlayerIndex() ? null : game.getPlayers().get(seat).getId());
+        action.setGuessedCard(guess == 0 ? null : CardType.values()[guess]);
+        action.setRoomCode(game.getRoomCode());
+        return action;
+    }
+
+    public static int seatOf(GameState game, String playerId) {
+        List<Player> players = game.getPlayers();
+        for (int seat = 0; seat < players.size(); seat++) {
+            if (players.get(seat).getId().equals(playerId)) {
+                return seat;
+            }
+        }
+        return -1;
+    }
+}
+
+// src/main/java/com/letterlover/common/engine/CardCounter.java
+package com.letterlover.common.engine;
+
+import com.letterlover.common.model.*;
+
+public final class CardCounter {
+
+    private static final CardType[] TYPES = CardType.values();
+    private static final int[] RADIX = new int[TYPES.length];
+    private static final int STATES;
+
+    // All tables are indexed by the mixed-radix encoding of the unseen card counts
+    private static final byte[] BEST_GUESS;
+    private static final float[] EXPECTED_VALUE;
+    private static final float[] P_LOWER;
+
+    static {
+        int states = 1;
+        for (int i = 0; i < TYPES.length; i++) {
+            RADIX[i] = TYPES[i].getCount() + 1;
+            states *= RADIX[i];
+        }
+        STATES = states;
+        BEST_GUESS = new byte[STATES];
+        EXPECTED_VALUE = new float[STATES];
+        P_LOWER = new float[STATES * (TYPES.length + 2)];
+
+        int[] counts = new int[TYPES.length];
+        for (int state = 0; state < STATES; state++) {
+            int rest = state;
+            int total = 0;
+            for (int i = 0; i < TYPES.length; i++) {
+                counts[i] = rest % RADIX[i];
+                rest /= RADIX[i];
+                total += counts[i];
+            }
+            BEST_GUESS[state] = (byte) bestGuess(counts);
+            if (total == 0) {
+                continue;
+            }
+
+            float sum = 0;
+            for (int i = 0; i < TYPES.length; i++) {
+                sum += counts[i] * TYPES[i].getValue();
+            }
+            EXPECTED_VALUE[state] = sum / total;
+
+            int lower = 0;
+            int base = state * (TYPES.length + 2);
+            for (int value = 1; value <= TYPES.length + 1; value++) {
+                P_LOWER[base + value] = (float) lower / total;
+                if (value <= TYPES.length) {
+                    lower += counts[value - 1];
+                }
+            }
+        }
+    }
+
+    private CardCounter() {
+    }
+
+    private static int bestGuess(int[] counts) {
+        int best = CardType.PRIEST.ordinal();
+        for (int i = 0; i < TYPES.length; i++) {
+            if (TYPES[i] != CardType.GUARD && counts[i] >= counts[best]) {
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    public static int unseenState(GameState game, Player self) {
+        RuleSet rules = RuleSets.get(game.getRuleSet());
+        int[] counts = new int[TYPES.length];
+        for (int i = 0; i < TYPES.length; i++) {
+            counts[i] = rules.count(TYPES[i]);
+        }
+        for (Player p : game.getPlayers()) {
+            for (Card card : p.getDiscardedCards()) {
+                counts[card.getType().ordinal()]--;
+            }
+        }
+        if (self.getCurrentCard() != null) {
+            counts[self.getCurrentCard().getType().ordinal()]--;
+        }
+
+        // The tables cover the classic deck; larger decks are scaled down to the same proportions
+        int state = 0;
+        for (int i = TYPES.length - 1; i >= 0; i--) {
+            int unseen = Math.max(0, counts[i]);
+            int total = rules.count(TYPES[i]);
+            int scaled = total <= TYPES[i].getCount() ? unseen : (unseen * TYPES[i].getCount() + total - 1) / total;
+            state = state * RADIX[i] + Math.min(scaled, RADIX[i] - 1);
+        }
+        return state;
+    }
+
+    public static CardType bestGuess(int state) {
+        return TYPES[BEST_GUESS[state]];
+    }
+
+    public static float expectedValue(int state) {
+        return EXPECTED_VALUE[state];
+    }
+
+    public static float probabilityLower(int state, int value) {
+        return P_LOWER[state * (TYPES.length + 2) + value];
+    }
+}
+
+// src/main/java/com/letterlover/common/engine/BotBrain.java
+package com.letterlover.common.engine;
+
+import com.letterlover.common.dto.GameAction;
+import com.letterlover.common.model.*;
+
+import java.util.Map;
+
+public class BotBrain {
+
+    public GameAction decide(GameState game, Player bot, Map<String, Card> knownCards) {
+        Card card = bot.getCurrentCard();
+        CardType type = card.getType();
+        int state = CardCounter.unseenState(game, bot);
+
+        GameAction action = new GameAction();
+        action.setType(GameAction.ActionType.PLAY_CARD);
+        action.setPlayerId(bot.getId());
+        action.setCardId(card.getId());
+        action.setCardType(type);
+        action.setRoomCode(game.getRoomCode());
+
+        switch (type) {
+            case GUARD -> chooseGuard(game, bot, knownCards, state, action);
+            case PRIEST -> action.setTargetPlayerId(idOf(pickUnknown(game, bot, knownCards)));
+            case BARON -> action.setTargetPlayerId(idOf(pickBaron(game, bot, card, knownCards, state)));
+            case PRINCE -> {
+                Player target = pickHighest(game, bot, knownCards, state);
+                action.setTargetPlayerId(target != null ? target.getId() : bot.getId());
+            }
+            case KING -> action.setTargetPlayerId(idOf(pickHighest(game, bot, knownCards, state)));
+            default -> {
+            }
+        }
+        return action;
+    }
+
+    private void chooseGuard(GameState game, Player bot, Map<String, Card> knownCards, int state, GameAction action) {
+        for (Player p : game.getPlayers()) {
+            Card known = knownFor(p, knownCards);
+            if (isTargetable(p, bot) && known != null && known.getType() != CardType.GUARD) {
+                action.setTargetPlayerId(p.getId());
+                action.setGuessedCard(known.getType());
+                return;
+            }
+        }
+        Player target = pickUnknown(game, bot, knownCards);
+        if (target != null) {
+            action.setTargetPlayerId(target.getId());
+            action.setGuessedCard(CardCounter.bestGuess(state));
+        }
+    }
+
+    private Player pickUnknown(GameState game, Player bot, Map<String, Card> knownCards) {
+        Player fallback = null;
+        for (Player p : game.getPlayers()) {
+            if (!isTargetable(p, bot)) continue;
+            if (knownFor(p, knownCards) == null) return p;
+            if (fallback == null) fallback = p;
+        }
+        return fallback;
+    }
+
+    private Player pickBaron(GameState game, Player bot, Card own, Map<String, Card> knownCards, int state) {
+        Player best = null;
+        float bestChance = -1;
+        for (Player p : game.getPlayers()) {
+            if (!isTargetable(p, bot)) continue;
+            Card known = knownFor(p, knownCards);
+            float chance = known != null
+                    ? (known.getValue() < own.getValue() ? 1f : 0f)
+                    : CardCounter.probabilityLower(state, own.getValue());
+            if (chance > bestChance) {
+                best = p;
+                bestChance = chance;
+            }
+        }
+        return best;
+    }
+
+    private Player pickHighest(GameState game, Player bot, Map<String, Card> knownCards, int state) {
+        Player best = null;
+        float bestValue = -1;
+        for (Player p : game.getPlayers()) {
+            if (!isTargetable(p, bot)) continue;
+            Card known = knownFor(p, knownCards);
+            float value = known != null ? known.getValue() : CardCounter.expectedValue(state);
+            if (value > bestValue) {
+                best = p;
+                bestValue = value;
+            }
+        }
+        return best;
+    }
+
+    private Card knownFor(Player p, Map<String, Card> knownCards) {
+        Card known = knownCards.get(p.getId());
+        // Knowledge is only valid while the player still holds exactly that card
+        if (known == null || p.getCurrentCard() == null || p.getCurrentCard().getSlot() != known.getSlot()) {
+            return null;
+        }
+        return known;
+    }
+
+    private boolean isTargetable(Player p, Player bot) {
+        return !p.getId().equals(bot.getId()) && !p.isEliminated() && !p.isProtected();
+    }
+
+    private String idOf(Player p) {
+        return p != null ? p.getId() : null;
+    }
 }
\ No newline at end of file
@@ -68,401 +68,4108 @@ public class LetterLoverServerApplication {
 // src/main/java/com/letterlover/server/config/WebSocketConfig.java
 package com.letterlover.server.config;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
 import org.springframework.web.socket.config.annotation.*;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+import org.springframework.web.socket.server.support.DefaultHandshakeHandler;
+
+import java.io.IOException;
 
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    @Value("${letterlover.execution.mode:platform}")
+    private String executionMode;
+
+    @Value("${letterlover.execution.virtual-concurrency:1024}")
+    private int virtualConcurrency;
+
+    @Value("${letterlover.stomp.heartbeat-ms:10000}")
+    private long heartbeatMillis;
+
+    @Value("${letterlover.ws.deflate:true}")
+    private boolean deflate;
+
+    @Value("${letterlover.ws.context-takeover:true}")
+    private boolean contextTakeover;
+
+    private TaskScheduler messageBrokerTaskScheduler;
+
+    @Autowired
+    private CompressionStats compressionStats;
+
+    @Autowired
+    private AdmissionControl admissionControl;
+
+    // Lazy because the broker scheduler is itself created by this configuration
+    @Autowired
+    public void setMessageBrokerTaskScheduler(@Lazy TaskScheduler messageBrokerTaskScheduler) {
+        this.messageBrokerTaskScheduler = messageBrokerTaskScheduler;
+    }
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        config.enableSimpleBroker("/topic", "/queue");
+        config.enableSimpleBroker("/topic", "/queue")
+                .setHeartbeatValue(new long[]{heartbeatMillis, heartbeatMillis})
+                .setTaskScheduler(messageBrokerTaskScheduler);
         config.setApplicationDestinationPrefixes("/app");
+        config.setPreservePublishOrder(true);
     }
 
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
+        registry.setPreserveReceiveOrder(true);
+        DefaultHandshakeHandler handshakeHandler =
+                new DefaultHandshakeHandler(new DeflateUpgradeStrategy(deflate, contextTakeover));
         registry.addEndpoint("/ws")
+                .setHandshakeHandler(handshakeHandler)
                 .setAllowedOriginPatterns("*")
                 .withSockJS();
+        // Plain STOMP over WebSocket for desktop clients, without SockJS framing or fallbacks
+        registry.addEndpoint("/ws-native")
+                .setHandshakeHandler(handshakeHandler)
+                .setAllowedOriginPatterns("*");
+    }
+
+    // Negotiation is DeflateUpgradeStrategy's; this only measures what deflate saves
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        // Oversized frames are refused by the transport before STOMP decoding
+        registration.setMessageSizeLimit(admissionControl.getMaxFrameBytes() + 1024);
+        if (!compressionStats.isEnabled()) {
+            return;
+        }
+        registration.addDecoratorFactory(handler -> new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                super.afterConnectionEstablished(new WebSocketSessionDecorator(session) {
+                    @Override
+                    public void sendMessage(WebSocketMessage<?> message) throws IOException {
+                        if (message instanceof TextMessage text) {
+                            compressionStats.sample(text.getPayload());
+                        }
+                        super.sendMessage(message);
+                    }
+                });
+            }
+        });
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.interceptors(admissionControl);
+        if (isVirtual()) {
+            registration.taskExecutor(virtualExecutor("ws-inbound-"));
+        }
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        if (isVirtual()) {
+            registration.taskExecutor(virtualExecutor("ws-outbound-"));
+        }
+    }
+
+    private boolean isVirtual() {
+        return "virtual".equalsIgnoreCase(executionMode);
+    }
+
+    private ThreadPoolTaskExecutor virtualExecutor(String prefix) {
+        // The channels only accept a ThreadPoolTaskExecutor, so back it with virtual threads
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadFactory(Thread.ofVirtual().name(prefix, 0).factory());
+        executor.setCorePoolSize(virtualConcurrency);
+        executor.setMaxPoolSize(virtualConcurrency);
+        executor.setAllowCoreThreadTimeOut(true);
+        return executor;
     }
 }
 
-// src/main/java/com/letterlover/server/service/GameService.java
-package com.letterlover.server.service;
+// src/main/java/com/letterlover/server/config/CompressionStats.java
+package com.letterlover.server.config;
 
-import com.letterlover.common.model.*;
-import com.letterlover.common.dto.*;
-import lombok.extern.slf4j.Slf4j;
-import org.springframework.stereotype.Service;
+import com.letterlover.common.model.CardType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
 
-import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.Deflater;
 
-@Slf4j
-@Service
-public class GameService {
-    
-    private final Map<String, GameState> games = new ConcurrentHashMap<>();
-    private final Map<String, RoomInfo> rooms = new ConcurrentHashMap<>();
+// Compresses a sample of outbound frames the way permessage-deflate would (raw deflate, sync flush)
+// to compare bytes and CPU against the uncompressed payload, with and without a game-vocabulary dictionary
+@Component
+public class CompressionStats {
 
-    public RoomInfo createRoom(String hostId, String hostName) {
-        String roomCode = generateRoomCode();
-        RoomInfo room = new RoomInfo(roomCode, hostId, 1, 4, false);
-        rooms.put(roomCode, room);
-        
-        GameState game = new GameState();
-        game.setRoomCode(roomCode);
-        game.setPhase(GameState.GamePhase.WAITING);
-        game.setRoundNumber(0);
-        game.getPlayers().add(new Player(hostId, hostName));
-        games.put(roomCode, game);
-        
-        log.info("Room created: {} by {}", roomCode, hostName);
-        return room;
+    // permessage-deflate strips the 0x00 0x00 0xff 0xff tail of every sync-flushed message
+    private static final int SYNC_TAIL = 4;
+
+    private final int sampleEvery;
+    private final byte[] dictionary = vocabulary();
+    private final AtomicLong seen = new AtomicLong();
+    private final LongAdder sampled = new LongAdder();
+    private final LongAdder rawBytes = new LongAdder();
+    private final LongAdder deflatedBytes = new LongAdder();
+    private final LongAdder dictionaryBytes = new LongAdder();
+    private final LongAdder deflateNanos = new LongAdder();
+
+    public CompressionStats(@Value("${letterlover.compression.sample-every:0}") int sampleEvery) {
+        this.sampleEvery = sampleEvery;
     }
 
-    public GameState joinRoom(String roomCode, String playerId, String playerName) {
-        GameState game = games.get(roomCode);
-        RoomInfo room = rooms.get(roomCode);
-        
-        if (game == null || room == null) {
-            throw new IllegalStateException("Room not found");
-        }
-        
-        if (room.isGameStarted()) {
-            throw new IllegalStateException("Game already started");
-        }
-        
-        if (game.getPlayers().size() >= room.getMaxPlayers()) {
-            throw new IllegalStateException("Room is full");
+    public boolean isEnabled() {
+        return sampleEvery > 0;
+    }
+
+    public void sample(String payload) {
+        if (!isEnabled() || seen.incrementAndGet() % sampleEvery != 0) {
+            return;
         }
-        
-        game.getPlayers().add(new Player(playerId, playerName));
-        room.setPlayerCount(game.getPlayers().size());
-        
-        log.info("Player {} joined room {}", playerName, roomCode);
-        return game;
+        byte[] raw = payload.getBytes(StandardCharsets.UTF_8);
+        long start = System.nanoTime();
+        int deflated = deflate(raw, null);
+        deflateNanos.add(System.nanoTime() - start);
+        sampled.increment();
+        rawBytes.add(raw.length);
+        deflatedBytes.add(deflated);
+        dictionaryBytes.add(deflate(raw, dictionary));
     }
 
-    public GameState startGame(String roomCode) {
-        GameState game = games.get(roomCode);
-        RoomInfo room = rooms.get(roomCode);
-        
-        if (game == null) {
-            throw new IllegalStateException("Game not found");
+    public Map<String, Object> snapshot() {
+        long samples = sampled.sum();
+        long raw = rawBytes.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("sampledFrames", samples);
+        stats.put("rawBytesPerFrame", samples == 0 ? 0 : raw / samples);
+        stats.put("deflateRatio", raw == 0 ? 0 : (double) deflatedBytes.sum() / raw);
+        stats.put("dictionaryRatio", raw == 0 ? 0 : (double) dictionaryBytes.sum() / raw);
+        stats.put("deflateMicrosPerFrame", samples == 0 ? 0 : deflateNanos.sum() / samples / 1000);
+        return stats;
+    }
+
+    // Measures a fresh window per frame, i.e. the no-context-takeover worst case
+    private int deflate(byte[] raw, byte[] preset) {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        try {
+            if (preset != null) {
+                deflater.setDictionary(preset);
+            }
+            deflater.setInput(raw);
+            byte[] out = new byte[raw.length + (raw.length >> 10) + 64];
+            int length = deflater.deflate(out, 0, out.length, Deflater.SYNC_FLUSH);
+            return length - SYNC_TAIL;
+        } finally {
+            deflater.end();
         }
-        
-        if (game.getPlayers().size() < 2) {
-            throw new IllegalStateException("Need at least 2 players");
+    }
+
+    // Deflate favours matches near the end of the dictionary, so the most common strings go last
+    private static byte[] vocabulary() {
+        StringBuilder words = new StringBuilder();
+        words.append(" hat die Karte von  angesehen:  hat Karten mit  getauscht! ist bis zum nächsten Zug geschützt!");
+        words.append(" hat richtig geraten!  hatte  und scheidet aus! hat falsch geraten.  hatte nicht ");
+        words.append(" im Duell besiegt! haben beide  Unentschieden! abgeworfen und eine neue Karte gezogen.");
+        words.append("\"phase\":\"WAITING\"\"phase\":\"PLAYING\"\"phase\":\"ROUND_END\"\"phase\":\"GAME_END\"");
+        for (CardType type : CardType.values()) {
+            words.append(type.getName()).append(' ');
         }
-        
-        room.setGameStarted(true);
-        startNewRound(game);
-        
-        log.info("Game started in room {}", roomCode);
-        return game;
+        words.append("\"roomCode\":\"\"currentPlayerIndex\":\"roundNumber\":\"lastAction\":\"legalMoves\":");
+        words.append("\"burnedCard\":\"deck\":[\"gameLog\":[\"[Runde ");
+        words.append("{\"id\":\"\",\"name\":\"\",\"currentCard\":\"discardedCards\":[],\"tokens\":0,");
+        words.append("\"protected\":false,\"eliminated\":false}");
+        return words.toString().getBytes(StandardCharsets.UTF_8);
     }
+}
 
-    private void startNewRound(GameState game) {
-        game.setRoundNumber(game.getRoundNumber() + 1);
-        game.setPhase(GameState.GamePhase.PLAYING);
-        game.setCurrentPlayerIndex(0);
-        
-        // Reset players
-        game.getPlayers().forEach(Player::resetForNewRound);
-        
-        // Initialize deck
-        game.setDeck(initializeDeck());
-        Collections.shuffle(game.getDeck());
-        
-        // Burn one card
-        game.setBurnedCard(game.getDeck().remove(0));
-        
-        // Deal initial cards
-        for (Player player : game.getPlayers()) {
-            player.drawCard(game.getDeck().remove(0));
+// src/main/java/com/letterlover/server/config/DeflateUpgradeStrategy.java
+package com.letterlover.server.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.websocket.Decoder;
+import jakarta.websocket.Encoder;
+import jakarta.websocket.Extension;
+import jakarta.websocket.HandshakeResponse;
+import jakarta.websocket.server.HandshakeRequest;
+import jakarta.websocket.server.ServerEndpointConfig;
+import org.springframework.web.socket.server.standard.TomcatRequestUpgradeStrategy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Tomcat negotiates extensions from the raw request header through the endpoint's configurator, so the
+// deflate policy is applied there: drop permessage-deflate, or answer with both no_context_takeover parameters
+final class DeflateUpgradeStrategy extends TomcatRequestUpgradeStrategy {
+
+    private static final String PERMESSAGE_DEFLATE = "permessage-deflate";
+    private static final List<Extension.Parameter> NO_CONTEXT_TAKEOVER = List.of(
+            parameter("server_no_context_takeover"), parameter("client_no_context_takeover"));
+
+    private final boolean deflate;
+    private final boolean contextTakeover;
+
+    DeflateUpgradeStrategy(boolean deflate, boolean contextTakeover) {
+        this.deflate = deflate;
+        this.contextTakeover = contextTakeover;
+    }
+
+    @Override
+    protected void upgradeHttpToWebSocket(HttpServletRequest request, HttpServletResponse response,
+                                          ServerEndpointConfig config, Map<String, String> pathParams) throws Exception {
+        super.upgradeHttpToWebSocket(request, response, new Negotiating(config), pathParams);
+    }
+
+    // Rewrites the client's offers before Tomcat picks one, so its own PerMessageDeflate does the rest
+    private List<Extension> negotiate(List<Extension> negotiated) {
+        List<Extension> result = new ArrayList<>(negotiated.size());
+        for (Extension extension : negotiated) {
+            if (!PERMESSAGE_DEFLATE.equals(extension.getName())) {
+                result.add(extension);
+            } else if (deflate) {
+                result.add(contextTakeover ? extension : offer(extension));
+            }
         }
-        
-        game.addLogEntry("Neue Runde gestartet! " + game.getPlayers().size() + " Spieler.");
+        return result;
     }
 
-    private List<Card> initializeDeck() {
-        List<Card> deck = new ArrayList<>();
-        for (CardType type : CardType.values()) {
-            for (int i = 0; i < type.getCount(); i++) {
-                deck.add(new Card(type));
+    private static Extension offer(Extension requested) {
+        List<Extension.Parameter> parameters = new ArrayList<>(NO_CONTEXT_TAKEOVER);
+        for (Extension.Parameter parameter : requested.getParameters()) {
+            if (!parameter.getName().endsWith("_no_context_takeover")) {
+                parameters.add(parameter);
             }
         }
-        return deck;
+        return new Extension() {
+            @Override
+            public String getName() {
+                return PERMESSAGE_DEFLATE;
+            }
+
+            @Override
+            public List<Parameter> getParameters() {
+                return parameters;
+            }
+        };
     }
 
-    public GameState playCard(String roomCode, GameAction action) {
-        GameState game = games.get(roomCode);
-        Player player = game.getPlayers().stream()
-                .filter(p -> p.getId().equals(action.getPlayerId()))
-                .findFirst()
-                .orElseThrow(() -> new IllegalStateException("Player not found"));
-        
-        if (!game.getCurrentPlayer().getId().equals(player.getId())) {
-            throw new IllegalStateException("Not your turn");
+    private static Extension.Parameter parameter(String name) {
+        return new Extension.Parameter() {
+            @Override
+            public String getName() {
+                return name;
+            }
+
+            @Override
+            public String getValue() {
+                return null;
+            }
+        };
+    }
+
+    // Delegates everything to Spring's registration except extension negotiation
+    private final class Negotiating extends ServerEndpointConfig.Configurator implements ServerEndpointConfig {
+
+        private final ServerEndpointConfig config;
+        private final ServerEndpointConfig.Configurator configurator;
+
+        Negotiating(ServerEndpointConfig config) {
+            this.config = config;
+            this.configurator = config.getConfigurator();
         }
-        
-        Card playedCard = player.getCurrentCard();
-        if (!playedCard.getType().equals(action.getCardType())) {
-            throw new IllegalStateException("Invalid card");
+
+        @Override
+        public List<Extension> getNegotiatedExtensions(List<Extension> installed, List<Extension> requested) {
+            return configurator.getNegotiatedExtensions(installed, negotiate(requested));
         }
-        
-        // Check for forced Countess play
-        if (hasCountessConstraint(player)) {
-            if (playedCard.getType() != CardType.COUNTESS) {
-                throw new IllegalStateException("Must play Countess when holding King or Prince");
-            }
+
+        @Override
+        public String getNegotiatedSubprotocol(List<String> supported, List<String> requested) {
+            return configurator.getNegotiatedSubprotocol(supported, requested);
         }
-        
-        player.discardCard(playedCard);
-        executeCardEffect(game, player, action);
-        
-        // Draw new card
-        if (!game.getDeck().isEmpty()) {
-            player.drawCard(game.getDeck().remove(0));
+
+        @Override
+        public boolean checkOrigin(String originHeaderValue) {
+            return configurator.checkOrigin(originHeaderValue);
         }
-        
-        // Remove protection from all players
-        game.getPlayers().forEach(p -> p.setProtected(false));
-        
-        // Set protection if Handmaid was played
-        if (playedCard.getType() == CardType.HANDMAID) {
-            player.setProtected(true);
+
+        @Override
+        public void modifyHandshake(ServerEndpointConfig sec, HandshakeRequest request, HandshakeResponse response) {
+            configurator.modifyHandshake(sec, request, response);
         }
-        
-        // Check for round end
-        checkRoundEnd(game);
-        
-        if (game.getPhase() == GameState.GamePhase.PLAYING) {
-            game.nextPlayer();
+
+        @Override
+        public <T> T getEndpointInstance(Class<T> endpointClass) throws InstantiationException {
+            return configurator.getEndpointInstance(endpointClass);
         }
-        
-        return game;
-    }
 
-    private boolean hasCountessConstraint(Player player) {
-        Card card = player.getCurrentCard();
-        return card != null && (card.getType() == CardType.KING || card.getType() == CardType.PRINCE);
-    }
+        @Override
+        public Class<?> getEndpointClass() {
+            return config.getEndpointClass();
+        }
 
-    private void executeCardEffect(GameState game, Player player, GameAction action) {
-        CardType cardType = action.getCardType();
-        Player target = null;
-        
-        if (action.getTargetPlayerId() != null) {
-            target = game.getPlayers().stream()
-                    .filter(p -> p.getId().equals(action.getTargetPlayerId()))
-                    .findFirst()
-                    .orElse(null);
-            
-            if (target != null && target.isProtected()) {
-                game.addLogEntry(player.getName() + " versuchte " + target.getName() + 
-                                " anzugreifen, aber sie ist geschützt!");
-                return;
-            }
+        @Override
+        public String getPath() {
+            return config.getPath();
         }
-        
-        switch (cardType) {
-            case GUARD -> executeGuard(game, player, target, action.getGuessedCard());
-            case PRIEST -> executePriest(game, player, target);
-            case BARON -> executeBaron(game, player, target);
-            case HANDMAID -> executeHandmaid(game, player);
-            case PRINCE -> executePrince(game, player, target);
-            case KING -> executeKing(game, player, target);
-            case COUNTESS -> executeCountess(game, player);
-            case PRINCESS -> executePrincess(game, player);
+
+        @Override
+        public List<String> getSubprotocols() {
+            return config.getSubprotocols();
         }
-    }
 
-    private void executeGuard(GameState game, Player player, Player target, CardType guess) {
-        if (target == null || guess == null) return;
-        
-        if (target.getCurrentCard().getType() == guess) {
-            target.setEliminated(true);
-            game.addLogEntry(player.getName() + " hat richtig geraten! " + 
-                           target.getName() + " hatte " + guess.getName() + " und scheidet aus!");
-        } else {
-            game.addLogEntry(player.getName() + " hat falsch geraten. " + 
-                           target.getName() + " hatte nicht " + guess.getName() + ".");
+        @Override
+        public List<Extension> getExtensions() {
+            return config.getExtensions();
+        }
+
+        @Override
+        public ServerEndpointConfig.Configurator getConfigurator() {
+            return this;
+        }
+
+        @Override
+        public List<Class<? extends Encoder>> getEncoders() {
+            return config.getEncoders();
+        }
+
+        @Override
+        public List<Class<? extends Decoder>> getDecoders() {
+            return config.getDecoders();
+        }
+
+        @Override
+        public Map<String, Object> getUserProperties() {
+            return config.getUserProperties();
         }
     }
+}
+
+// src/main/java/com/letterlover/server/config/TokenBucket.java
+package com.letterlover.server.config;
+
+// Refills continuously at ratePerSecond up to burst; one instance per session, room or the whole node
+final class TokenBucket {
 
-    private void executePriest(GameState game, Player player, Player target) {
-        if (target == null) return;
-        game.addLogEntry(player.getName() + " hat die Karte von " + 
-                       target.getName() + " angesehen: " + target.getCurrentCard().getName());
+    private final double ratePerNano;
+    private final double burst;
+    private double tokens;
+    private long refilledAt;
+
+    TokenBucket(double ratePerSecond, double burst) {
+        this.ratePerNano = ratePerSecond / 1_000_000_000.0;
+        this.burst = burst;
+        this.tokens = burst;
+        this.refilledAt = System.nanoTime();
     }
 
-    private void executeBaron(GameState game, Player player, Player target) {
-        if (target == null) return;
-        
-        int playerValue = player.getCurrentCard().getValue();
-        int targetValue = target.getCurrentCard().getValue();
-        
-        if (playerValue > targetValue) {
-            target.setEliminated(true);
-            game.addLogEntry(player.getName() + " (" + playerValue + ") hat " + 
-                           target.getName() + " (" + targetValue + ") im Duell besiegt!");
-        } else if (targetValue > playerValue) {
-            player.setEliminated(true);
-            game.addLogEntry(target.getName() + " (" + targetValue + ") hat " + 
-                           player.getName() + " (" + playerValue + ") im Duell besiegt!");
-        } else {
-            game.addLogEntry(player.getName() + " und " + target.getName() + 
-                           " haben beide " + playerValue + ". Unentschieden!");
+    // Takes a token only while more than reserve tokens are left
+    synchronized boolean tryAcquire(double reserve) {
+        long now = System.nanoTime();
+        tokens = Math.min(burst, tokens + (now - refilledAt) * ratePerNano);
+        refilledAt = now;
+        if (tokens - 1 < reserve) {
+            return false;
         }
+        tokens -= 1;
+        return true;
     }
 
-    private void executeHandmaid(GameState game, Player player) {
-        game.addLogEntry(player.getName() + " ist bis zum nächsten Zug geschützt!");
+    // A full bucket behaves exactly like a fresh one, so it can be dropped without losing any limit
+    synchronized boolean isFull() {
+        long now = System.nanoTime();
+        tokens = Math.min(burst, tokens + (now - refilledAt) * ratePerNano);
+        refilledAt = now;
+        return tokens >= burst;
     }
 
-    private void executePrince(GameState game, Player player, Player target) {
-        if (target == null) target = player;
-        
-        Card discarded = target.getCurrentCard();
-        target.discardCard(discarded);
-        
-        if (discarded.getType() == CardType.PRINCESS) {
-            target.setEliminated(true);
-            game.addLogEntry(target.getName() + " musste die Princess abwerfen und scheidet aus!");
-        } else {
-            if (!game.getDeck().isEmpty()) {
-                target.drawCard(game.getDeck().remove(0));
-            } else {
-                target.drawCard(game.getBurnedCard());
-            }
-            game.addLogEntry(target.getName() + " hat " + discarded.getName() + 
-                           " abgeworfen und eine neue Karte gezogen.");
-        }
+    double getBurst() {
+        return burst;
     }
+}
 
-    private void executeKing(GameState game, Player player, Player target) {
-        if (target == null) return;
-        
-        Card temp = player.getCurrentCard();
-        player.drawCard(target.getCurrentCard());
-        target.drawCard(temp);
-        
-        game.addLogEntry(player.getName() + " hat Karten mit " + target.getName() + " getauscht!");
+// src/main/java/com/letterlover/server/config/AdmissionControl.java
+package com.letterlover.server.config;
+
+import com.letterlover.common.engine.GameEventListener;
+import com.letterlover.common.model.GameState;
+import com.letterlover.common.model.Player;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Runs on the inbound channel before any payload conversion. A rejected frame costs a header lookup,
+// a length check and a bucket update, and is dropped without a reply.
+@Component
+public class AdmissionControl implements ChannelInterceptor, GameEventListener {
+
+    private static final byte[] ROOM_CODE_KEY = "\"roomCode\":\"".getBytes(StandardCharsets.US_ASCII);
+    private static final String CHAT_PREFIX = "/app/chat.";
+
+    private final int maxFrameBytes;
+    private final double sessionRate;
+    private final double roomRate;
+    // Room codes come from client payloads, so room buckets are capped and swept once they refill
+    private final int maxRooms;
+    private final long sweepMillis;
+    private final TokenBucket global;
+    // Chat is only admitted while the global bucket holds more than this, leaving the rest to game actions
+    private final double chatReserve;
+    private final Map<String, TokenBucket> sessions = new ConcurrentHashMap<>();
+    private final Map<String, TokenBucket> rooms = new ConcurrentHashMap<>();
+    private final LongAdder oversized = new LongAdder();
+    private final LongAdder sessionLimited = new LongAdder();
+    private final LongAdder roomLimited = new LongAdder();
+    private final LongAdder shed = new LongAdder();
+    private final ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor();
+
+    public AdmissionControl(@Value("${letterlover.admission.max-frame-bytes:8192}") int maxFrameBytes,
+                            @Value("${letterlover.admission.session-rate:20}") double sessionRate,
+                            @Value("${letterlover.admission.room-rate:50}") double roomRate,
+                            @Value("${letterlover.admission.global-rate:20000}") double globalRate,
+                            @Value("${letterlover.admission.chat-reserve:0.5}") double chatReserve,
+                            @Value("${letterlover.admission.max-rooms:10000}") int maxRooms,
+                            @Value("${letterlover.admission.sweep-ms:1000}") long sweepMillis) {
+        this.maxFrameBytes = maxFrameBytes;
+        this.sessionRate = sessionRate;
+        this.roomRate = roomRate;
+        this.maxRooms = maxRooms;
+        this.sweepMillis = sweepMillis;
+        this.global = new TokenBucket(globalRate, globalRate * 2);
+        this.chatReserve = global.getBurst() * chatReserve;
     }
 
-    private void executeCountess(GameState game, Player player) {
-        game.addLogEntry(player.getName() + " hat die Countess abgeworfen.");
+    @PostConstruct
+    public void start() {
+        sweeper.scheduleWithFixedDelay(this::sweepRooms, sweepMillis, sweepMillis, TimeUnit.MILLISECONDS);
     }
 
-    private void executePrincess(GameState game, Player player) {
-        player.setEliminated(true);
-        game.addLogEntry(player.getName() + " hat die Princess abgeworfen und scheidet aus!");
+    @PreDestroy
+    public void shutdown() {
+        sweeper.shutdownNow();
     }
 
-    private void checkRoundEnd(GameState game) {
-        List<Player> active = game.getActivePlayers();
-        
-        // Only one player left or deck empty
-        if (active.size() == 1 || game.getDeck().isEmpty()) {
-            Player winner = determineRoundWinner(active);
-            winner.addToken();
-            
-            game.setPhase(GameState.GamePhase.ROUND_END);
-            game.addLogEntry("Runde beendet! " + winner.getName() + " gewinnt und erhält einen Token!");
-            
-            // Check for game winner
-            if (winner.getTokens() >= getRequiredTokens(game.getPlayers().size())) {
-                game.setPhase(GameState.GamePhase.GAME_END);
-                game.addLogEntry("SPIEL BEENDET! " + winner.getName() + " gewinnt das Spiel!");
-            }
+    public int getMaxFrameBytes() {
+        return maxFrameBytes;
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() != StompCommand.SEND) {
+            return message;
+        }
+        byte[] payload = message.getPayload() instanceof byte[] bytes ? bytes : new byte[0];
+        if (payload.length > maxFrameBytes) {
+            oversized.increment();
+            return null;
+        }
+        String sessionId = accessor.getSessionId();
+        if (sessionId != null && !sessions.computeIfAbsent(sessionId, id -> bucket(sessionRate)).tryAcquire(0)) {
+            sessionLimited.increment();
+            return null;
+        }
+        TokenBucket room = roomBucket(roomCodeOf(payload));
+        if (room != null && !room.tryAcquire(0)) {
+            roomLimited.increment();
+            return null;
         }
+        String destination = accessor.getDestination();
+        boolean chat = destination != null && destination.startsWith(CHAT_PREFIX);
+        if (!global.tryAcquire(chat ? chatReserve : 0)) {
+            shed.increment();
+            return null;
+        }
+        return message;
     }
 
-    private Player determineRoundWinner(List<Player> active) {
-        return active.stream()
-                .max(Comparator.comparingInt(p -> p.getCurrentCard().getValue()))
-                .orElse(active.get(0));
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        sessions.remove(event.getSessionId());
     }
 
-    private int getRequiredTokens(int playerCount) {
-        return switch (playerCount) {
-            case 2 -> 7;
-            case 3 -> 5;
-            default -> 4;
-        };
+    @Override
+    public void onGameEnd(GameState game, Player winner) {
+        rooms.remove(game.getRoomCode());
     }
 
-    private String generateRoomCode() {
-        return String.format("%04d", new Random().nextInt(10000));
+    public Map<String, Object> snapshot() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("oversized", oversized.sum());
+        stats.put("sessionLimited", sessionLimited.sum());
+        stats.put("roomLimited", roomLimited.sum());
+        stats.put("shed", shed.sum());
+        stats.put("trackedSessions", sessions.size());
+        stats.put("trackedRooms", rooms.size());
+        return stats;
     }
 
-    public GameState getGame(String roomCode) {
-        return games.get(roomCode);
+    private static TokenBucket bucket(double rate) {
+        return new TokenBucket(rate, rate * 2);
     }
 
-    public RoomInfo getRoom(String roomCode) {
-        return rooms.get(roomCode);
+    // Past the cap a new room goes without a bucket; the session and global buckets still hold it back
+    private TokenBucket roomBucket(String roomCode) {
+        if (roomCode == null) {
+            return null;
+        }
+        TokenBucket existing = rooms.get(roomCode);
+        if (existing != null || rooms.size() >= maxRooms) {
+            return existing;
+        }
+        return rooms.computeIfAbsent(roomCode, code -> bucket(roomRate));
+    }
+
+    private void sweepRooms() {
+        rooms.values().removeIf(TokenBucket::isFull);
+    }
+
+    // Finds "roomCode":"..." in the raw JSON without parsing it
+    private static String roomCodeOf(byte[] payload) {
+        outer:
+        for (int i = 0; i + ROOM_CODE_KEY.length < payload.length; i++) {
+            for (int k = 0; k < ROOM_CODE_KEY.length; k++) {
+                if (payload[i + k] != ROOM_CODE_KEY[k]) {
+                    continue outer;
+                }
+            }
+            int start = i + ROOM_CODE_KEY.length;
+            int end = start;
+            while (end < payload.length && payload[end] != '"' && end - start < 16) {
+                end++;
+            }
+            return new String(payload, start, end - start, StandardCharsets.US_ASCII);
+        }
+        return null;
     }
 }
 
-// src/main/java/com/letterlover/server/controller/GameController.java
-package com.letterlover.server.controller;
+// src/main/java/com/letterlover/server/config/StartupProbe.java
+package com.letterlover.server.config;
 
-import com.letterlover.common.dto.*;
-import com.letterlover.common.model.GameState;
-import com.letterlover.server.service.GameService;
-import lombok.RequiredArgsConstructor;
-import org.springframework.messaging.handler.annotation.*;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
-import org.springframework.stereotype.Controller;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
 
-@Controller
-@RequiredArgsConstructor
-public class GameController {
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
 
-    private final GameService gameService;
-    private final SimpMessagingTemplate messagingTemplate;
+// Measures cold start: JVM launch to context ready and to the first accepted STOMP connection
+@Slf4j
+@Component
+@Lazy(false)
+public class StartupProbe {
 
-    @MessageMapping("/game.createRoom")
-    public void createRoom(@Payload Map<String, String> request) {
-        RoomInfo room = gameService.createRoom(
-            request.get("playerId"), 
-            request.get("playerName")
-        );
-        GameState game = gameService.getGame(room.getRoomCode());
-        messagingTemplate.convertAndSend("/topic/room." + room.getRoomCode(), game);
-    }
+    private final AtomicBoolean firstConnection = new AtomicBoolean(true);
 
-    @MessageMapping("/game.joinRoom")
-    public void joinRoom(@Payload Map<String, String> request) {
-        GameState game = gameService.joinRoom(
-            request.get("roomCode"),
-            request.get("playerId"),
-            request.get("playerName")
-        );
-        messagingTemplate.convertAndSend("/topic/room." + game.getRoomCode(), game);
+    @EventListener
+    public void onReady(ApplicationReadyEvent event) {
+        log.info("Startup: context ready {} ms after JVM start", sinceJvmStart());
     }
 
-    @MessageMapping("/game.startGame")
-    public void startGame(@Payload Map<String, String> request) {
-        GameState game = gameService.startGame(request.get("roomCode"));
-        messagingTemplate.convertAndSend("/topic/room." + game.getRoomCode(), game);
+    @EventListener
+    public void onConnected(SessionConnectedEvent event) {
+        if (firstConnection.compareAndSet(true, false)) {
+            log.info("Startup: first STOMP connection accepted {} ms after JVM start", sinceJvmStart());
+        }
     }
 
-    @MessageMapping("/game.playCard")
-    public void playCard(@Payload GameAction action) {
-        GameState game = gameService.playCard(action.getCardId(), action);
-        messagingTemplate.convertAndSend("/topic/room." + game.getRoomCode(), game);
+    private long sinceJvmStart() {
+        return System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
     }
+}
 
-    @MessageMapping("/chat.sendMessage")
-    public void sendChatMessage(@Payload ChatMessage message) {
-        messagingTemplate.convertAndSend("/topic/chat." + message.getPlayerId(), message);
+// src/main/java/com/letterlover/server/service/GameService.java
+package com.letterlover.server.service;
+
+import com.letterlover.common.engine.GameEngine;
+import com.letterlover.common.engine.GameEventListener;
+import com.letterlover.common.engine.LegalMoves;
+import com.letterlover.common.engine.RuleSet;
+import com.letterlover.common.engine.RuleSets;
+import com.letterlover.common.model.*;
+import com.letterlover.common.dto.*;
+import com.letterlover.server.replay.GameRecord;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+// Never lazy: the engine is only built in afterSingletonsInstantiated
+@Slf4j
+@Service
+@Lazy(false)
+public class GameService implements SmartInitializingSingleton {
+
+    // No 0/O or 1/I, so codes read aloud or typed from a screen survive
+    private static final String CODE_ALPHABET = "ABCDEFGHJKLMNPQRSTUVWXYZ23456789";
+    private static final int CODE_LENGTH = 6;
+    private static final int MAX_CODE_ATTEMPTS = 16;
+    
+    private final Map<String, GameState> games = new ConcurrentHashMap<>();
+    private final Map<String, RoomInfo> rooms = new ConcurrentHashMap<>();
+    private final Map<String, GameRecord> records = new ConcurrentHashMap<>();
+    // Records of removed rooms wait here for the replay batch; the oldest are dropped past the cap
+    private final Queue<GameRecord> finishedRecords = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger finishedCount = new AtomicInteger();
+    // Written only by the room's own task, read by anyone without locking
+    private final Map<String, GameSnapshot> snapshots = new ConcurrentHashMap<>();
+    // Idle rooms leave games and are kept only as their encoded bytes; their last snapshot stays listed
+    private final Map<String, byte[]> hibernated = new ConcurrentHashMap<>();
+    private final Set<String> touched = ConcurrentHashMap.newKeySet();
+    // Players who left mid-round keep their seat, eliminated, until the next round starts
+    private final Map<String, Set<String>> departures = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService hibernator = Executors.newSingleThreadScheduledExecutor();
+    private final ObjectProvider<GameEventListener> listeners;
+    private final LobbyIndex lobbyIndex;
+    private final RoomExecutor roomExecutor;
+    private final BotMemory botMemory;
+    private final int defaultTurnSeconds;
+    private final long idleMillis;
+    private final int retainedRecords;
+    private GameEventListener events = GameEventListener.NONE;
+    private GameEngine engine;
+
+    public GameService(ObjectProvider<GameEventListener> listeners, LobbyIndex lobbyIndex,
+                       RoomExecutor roomExecutor, BotMemory botMemory,
+                       @Value("${letterlover.turn-timer.default-seconds:0}") int defaultTurnSeconds,
+                       @Value("${letterlover.hibernation.idle-ms:300000}") long idleMillis,
+                       @Value("${letterlover.replay.retained-games:10000}") int retainedRecords) {
+        this.listeners = listeners;
+        this.lobbyIndex = lobbyIndex;
+        this.roomExecutor = roomExecutor;
+        this.botMemory = botMemory;
+        this.defaultTurnSeconds = defaultTurnSeconds;
+        this.idleMillis = idleMillis;
+        this.retainedRecords = retainedRecords;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        // Resolved late so listeners may themselves depend on GameService
+        this.events = GameEventListener.of(listeners.orderedStream().toList());
+        this.engine = new GameEngine(events, true);
+        if (idleMillis > 0) {
+            hibernator.scheduleWithFixedDelay(this::hibernateIdle, idleMillis, idleMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        hibernator.shutdownNow();
+    }
+
+    public RoomInfo createRoom(String hostId, String hostName) {
+        return createRoom(hostId, hostName, RuleSets.CLASSIC);
+    }
+
+    public RoomInfo createRoom(String hostId, String hostName, String ruleSetId) {
+        RuleSet rules = RuleSets.get(ruleSetId);
+        String roomCode = null;
+        RoomInfo room = null;
+        for (int attempt = 0; room == null; attempt++) {
+            if (attempt == MAX_CODE_ATTEMPTS) {
+                throw new IllegalStateException("No free room code");
+            }
+            roomCode = generateRoomCode();
+            room = new RoomInfo(roomCode, hostId, 1, rules.getMaxPlayers(), false, defaultTurnSeconds);
+            if (rooms.putIfAbsent(roomCode, room) != null) {
+                room = null;
+            }
+        }
+        
+        GameState game = new GameState();
+        game.setRoomCode(roomCode);
+        game.setRuleSet(rules.getId());
+        game.setPhase(GameState.GamePhase.WAITING);
+        game.setRoundNumber(0);
+        game.getPlayers().add(new Player(hostId, hostName));
+        games.put(roomCode, game);
+        touched.add(roomCode);
+        publish(game);
+        lobbyIndex.opened(room);
+        
+        log.info("Room created: {} by {}", roomCode, hostName);
+        return room;
+    }
+
+    public GameState joinRoom(String roomCode, String playerId, String playerName) {
+        RoomInfo room = rooms.get(roomCode);
+
+        // Joins may arrive from matchmaking and tournaments as well as the room's own queue
+        GameState game = withLiveGame(roomCode, live -> {
+            if (live == null || room == null) {
+                throw new IllegalStateException("Room not found");
+            }
+
+            if (room.isGameStarted()) {
+                throw new IllegalStateException("Game already started");
+            }
+
+            if (live.getPlayers().size() >= room.getMaxPlayers()) {
+                throw new IllegalStateException("Room is full");
+            }
+
+            if (LegalMoves.seatOf(live, playerId) >= 0) {
+                throw new IllegalStateException("Already in room");
+            }
+
+            live.getPlayers().add(new Player(playerId, playerName));
+            room.setPlayerCount(live.getPlayers().size());
+            publish(live);
+            // Under the monitor, so a late update cannot bring back a room its last leave just removed
+            lobbyIndex.updated(room);
+            return live;
+        });
+        
+        log.info("Player {} joined room {}", playerName, roomCode);
+        return game;
+    }
+
+    public GameState startGame(String roomCode) {
+        RoomInfo room = rooms.get(roomCode);
+
+        // Also starts every following round, so only a round in progress or a finished game is refused
+        GameState game = withLiveGame(roomCode, live -> {
+            if (live == null) {
+                throw new IllegalStateException("Game not found");
+            }
+            if (live.getPhase() == GameState.GamePhase.PLAYING || live.getPhase() == GameState.GamePhase.GAME_END) {
+                throw new IllegalStateException("Round already in progress");
+            }
+            Set<String> departed = departures.remove(roomCode);
+            if (departed != null) {
+                live.getPlayers().removeIf(p -> departed.contains(p.getId()));
+            }
+            int minPlayers = RuleSets.get(live.getRuleSet()).getMinPlayers();
+            if (live.getPlayers().size() < minPlayers) {
+                throw new IllegalStateException("Need at least " + minPlayers + " players");
+            }
+            room.setGameStarted(true);
+            lobbyIndex.closed(roomCode);
+            records.computeIfAbsent(roomCode, code -> GameRecord.of(live));
+            startNewRound(live);
+            publish(live);
+            return live;
+        });
+        
+        log.info("Game started in room {}", roomCode);
+        return game;
+    }
+
+    private void startNewRound(GameState game) {
+        List<Card> deck = RuleSets.get(game.getRuleSet()).newDeck();
+        Collections.shuffle(deck);
+        records.get(game.getRoomCode()).addRound(deck, game.getPlayers());
+        engine.startNewRound(game, deck);
+    }
+
+    public GameState playCard(String roomCode, GameAction action) {
+        return playCard(roomCode, action, null);
+    }
+
+    // The note is logged only once the move went through, and is part of the snapshot it publishes
+    public GameState playCard(String roomCode, GameAction action, String note) {
+        return withLiveGame(roomCode, game -> {
+            if (game == null) {
+                throw new IllegalStateException("Room not found");
+            }
+            engine.playCard(game, action);
+            if (note != null) {
+                game.addLogEntry(note);
+            }
+            records.get(roomCode).addAction(action);
+            publish(game);
+            return game;
+        });
+    }
+
+    private void publish(GameState game) {
+        snapshots.put(game.getRoomCode(), GameSnapshot.from(game, snapshots.get(game.getRoomCode())));
+    }
+
+    // Returns false when the room is gone, either already or because the last player left
+    public boolean leaveRoom(String roomCode, String playerId) {
+        RoomInfo room = rooms.get(roomCode);
+        return withLiveGame(roomCode, game -> {
+            if (game == null || room == null) {
+                return false;
+            }
+            int seat = LegalMoves.seatOf(game, playerId);
+            if (seat < 0) {
+                return true;
+            }
+            Set<String> departed = departures.computeIfAbsent(roomCode, code -> ConcurrentHashMap.newKeySet());
+            if (game.getPhase() == GameState.GamePhase.PLAYING) {
+                records.get(roomCode).addLeave(playerId);
+                departed.add(playerId);
+                engine.forfeit(game, game.getPlayers().get(seat));
+            } else {
+                game.getPlayers().remove(seat);
+            }
+
+            int remaining = game.getPlayers().size() - departed.size();
+            if (remaining <= 0) {
+                removeRoom(roomCode);
+                return false;
+            }
+            room.setPlayerCount(remaining);
+            if (playerId.equals(room.getHostId())) {
+                game.getPlayers().stream()
+                        .filter(p -> !departed.contains(p.getId()))
+                        .findFirst()
+                        .ifPresent(p -> room.setHostId(p.getId()));
+            }
+            publish(game);
+            if (game.getPhase() == GameState.GamePhase.WAITING) {
+                lobbyIndex.updated(room);
+            }
+            log.info("Player {} left room {}", playerId, roomCode);
+            return true;
+        });
+    }
+
+    public RoomInfo setTurnSeconds(String roomCode, int seconds) {
+        RoomInfo room = rooms.get(roomCode);
+        if (room == null) {
+            throw new IllegalStateException("Room not found");
+        }
+        room.setTurnSeconds(Math.max(0, seconds));
+        return room;
+    }
+
+    public void removeRoom(String roomCode) {
+        GameRecord record = records.remove(roomCode);
+        if (record != null && retainedRecords > 0) {
+            finishedRecords.offer(record);
+            if (finishedCount.incrementAndGet() > retainedRecords && finishedRecords.poll() != null) {
+                finishedCount.decrementAndGet();
+            }
+        }
+        games.remove(roomCode);
+        rooms.remove(roomCode);
+        snapshots.remove(roomCode);
+        hibernated.remove(roomCode);
+        touched.remove(roomCode);
+        departures.remove(roomCode);
+        lobbyIndex.closed(roomCode);
+        botMemory.forgetRoom(roomCode);
+        events.onRoomRemoved(roomCode);
+        log.info("Room {} removed", roomCode);
+    }
+
+    // 32^6, about a billion codes: a collision stays rare even with millions of rooms
+    private String generateRoomCode() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        char[] code = new char[CODE_LENGTH];
+        for (int i = 0; i < code.length; i++) {
+            code[i] = CODE_ALPHABET.charAt(random.nextInt(CODE_ALPHABET.length()));
+        }
+        return new String(code);
+    }
+
+    public GameState getGame(String roomCode) {
+        return live(roomCode);
+    }
+
+    public GameSnapshot getSnapshot(String roomCode) {
+        GameSnapshot snapshot = snapshots.get(roomCode);
+        if (snapshot != null || !hibernated.containsKey(roomCode)) {
+            return snapshot;
+        }
+        GameState game = live(roomCode);
+        return game == null ? null : snapshots.computeIfAbsent(roomCode, code -> GameSnapshot.from(game, null));
+    }
+
+    public int getHibernatedCount() {
+        return hibernated.size();
+    }
+
+    // The compute calls lock the room's bin, so a rehydration never interleaves with its hibernation
+    private GameState live(String roomCode) {
+        GameState game = games.get(roomCode);
+        if (game == null && hibernated.containsKey(roomCode)) {
+            game = games.computeIfAbsent(roomCode, code -> {
+                byte[] data = hibernated.remove(code);
+                return data == null ? null : GameStateCodec.decode(data);
+            });
+        }
+        if (game != null) {
+            touched.add(roomCode);
+        }
+        return game;
+    }
+
+    // Runs the action under the monitor of the room's live game, or with null once the room is gone.
+    // hibernate swaps the instance out under that monitor, so a caller that fetched it just before
+    // finds it retired once it holds the lock and moves on to the rehydrated one.
+    private <T> T withLiveGame(String roomCode, Function<GameState, T> action) {
+        while (true) {
+            GameState game = live(roomCode);
+            if (game == null) {
+                return action.apply(null);
+            }
+            synchronized (game) {
+                if (games.get(roomCode) == game) {
+                    return action.apply(game);
+                }
+            }
+        }
+    }
+
+    // A room untouched for a whole sweep interval is idle; only rooms waiting on players are hibernated
+    private void hibernateIdle() {
+        try {
+            for (String roomCode : games.keySet()) {
+                if (!touched.remove(roomCode)) {
+                    roomExecutor.execute(roomCode, () -> hibernate(roomCode));
+                }
+            }
+        } catch (RuntimeException e) {
+            log.error("Hibernation sweep failed", e);
+        }
+    }
+
+    // Checked and encoded under the game's monitor, then swapped out with a conditional remove, so the
+    // lock order is monitor before map as in leaveRoom and removeRoom
+    private void hibernate(String roomCode) {
+        GameState game = games.get(roomCode);
+        if (game == null || touched.contains(roomCode)) {
+            return;
+        }
+        synchronized (game) {
+            if (touched.contains(roomCode)
+                    || game.getPhase() != GameState.GamePhase.WAITING && game.getPhase() != GameState.GamePhase.ROUND_END) {
+                return;
+            }
+            hibernated.put(roomCode, GameStateCodec.encode(game));
+            if (!games.remove(roomCode, game)) {
+                // Removed meanwhile; removeRoom may already have cleared hibernated before the put
+                hibernated.remove(roomCode);
+            }
+        }
+    }
+
+    public Collection<GameSnapshot> getSnapshots() {
+        return Collections.unmodifiableCollection(snapshots.values());
+    }
+
+    public RoomInfo getRoom(String roomCode) {
+        return rooms.get(roomCode);
+    }
+
+    public GameRecord getRecord(String roomCode) {
+        return records.get(roomCode);
+    }
+
+    // Hands the records of removed rooms to the replay batch and forgets them
+    public List<GameRecord> drainRecords() {
+        List<GameRecord> drained = new ArrayList<>();
+        GameRecord record;
+        while ((record = finishedRecords.poll()) != null) {
+            finishedCount.decrementAndGet();
+            drained.add(record);
+        }
+        return drained;
+    }
+}
+
+// src/main/java/com/letterlover/server/service/PresenceRegistry.java
+package com.letterlover.server.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+// Links STOMP sessions to players and their room. A closed socket or a missed heartbeat both end in
+// SessionDisconnectEvent, which frees the player's seat.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PresenceRegistry {
+
+    private final GameService gameService;
+    private final RoomExecutor roomExecutor;
+    private final SimpMessagingTemplate messagingTemplate;
+
+    private final Map<String, Presence> bySession = new ConcurrentHashMap<>();
+    private final Map<String, String> sessionByPlayer = new ConcurrentHashMap<>();
+    private final List<Consumer<String>> disconnectListeners = new CopyOnWriteArrayList<>();
+
+    private record Presence(String playerId, String roomCode) {
+    }
+
+    // A player reconnecting on a new session takes over; the old session's disconnect is then ignored
+    public void bind(String sessionId, String playerId, String roomCode) {
+        if (sessionId == null || playerId == null) {
+            return;
+        }
+        bySession.put(sessionId, new Presence(playerId, roomCode));
+        String previous = sessionByPlayer.put(playerId, sessionId);
+        if (previous != null && !previous.equals(sessionId)) {
+            bySession.remove(previous);
+        }
+    }
+
+    public void enterRoom(String playerId, String roomCode) {
+        String sessionId = sessionByPlayer.get(playerId);
+        if (sessionId != null) {
+            bySession.computeIfPresent(sessionId, (id, p) -> new Presence(p.playerId(), roomCode));
+        }
+    }
+
+    // Called with the player id once the player's current session is gone, whether or not they sit in a room
+    public void addDisconnectListener(Consumer<String> listener) {
+        disconnectListeners.add(listener);
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        Presence presence = bySession.remove(event.getSessionId());
+        if (presence == null || !sessionByPlayer.remove(presence.playerId(), event.getSessionId())) {
+            return;
+        }
+        disconnectListeners.forEach(listener -> listener.accept(presence.playerId()));
+        if (presence.roomCode() != null) {
+            log.debug("Player {} disconnected from room {}", presence.playerId(), presence.roomCode());
+            leave(presence.roomCode(), presence.playerId());
+        }
+    }
+
+    public void leaveSession(String sessionId) {
+        Presence presence = sessionId == null ? null : bySession.get(sessionId);
+        if (presence != null && presence.roomCode() != null) {
+            leave(presence.roomCode(), presence.playerId());
+        }
+    }
+
+    public void leave(String roomCode, String playerId) {
+        enterRoom(playerId, null);
+        roomExecutor.execute(roomCode, () -> {
+            if (gameService.leaveRoom(roomCode, playerId)) {
+                messagingTemplate.convertAndSend("/topic/room." + roomCode, gameService.getSnapshot(roomCode));
+            }
+        });
+    }
+
+    public boolean isOnline(String playerId) {
+        return sessionByPlayer.containsKey(playerId);
+    }
+
+    public int getOnlineCount() {
+        return sessionByPlayer.size();
+    }
+}
+
+// src/main/java/com/letterlover/server/service/BotMemory.java
+package com.letterlover.server.service;
+
+import com.letterlover.common.engine.GameEventListener;
+import com.letterlover.common.model.*;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+public class BotMemory implements GameEventListener {
+
+    // Bot id to the room it sits in
+    private final Map<String, String> bots = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> botsByRoom = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, Card>> knownCards = new ConcurrentHashMap<>();
+
+    public void register(String botId, String roomCode) {
+        bots.put(botId, roomCode);
+        botsByRoom.computeIfAbsent(roomCode, code -> ConcurrentHashMap.newKeySet()).add(botId);
+    }
+
+    public void forget(String botId) {
+        String roomCode = bots.remove(botId);
+        if (roomCode != null) {
+            botsByRoom.computeIfPresent(roomCode, (code, ids) -> {
+                ids.remove(botId);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+        knownCards.remove(botId);
+    }
+
+    public void forgetRoom(String roomCode) {
+        Set<String> ids = botsByRoom.remove(roomCode);
+        if (ids != null) {
+            for (String botId : ids) {
+                bots.remove(botId);
+                knownCards.remove(botId);
+            }
+        }
+    }
+
+    public boolean isBot(String playerId) {
+        return bots.containsKey(playerId);
+    }
+
+    public Map<String, Card> knownCards(String botId) {
+        return knownCards.getOrDefault(botId, Map.of());
+    }
+
+    // Card ids are slots of the round's deck, so anything seen in an earlier round would match the wrong card
+    @Override
+    public void onRoundStart(GameState game) {
+        for (Player p : game.getPlayers()) {
+            knownCards.remove(p.getId());
+        }
+    }
+
+    @Override
+    public void onPriest(GameState game, Player player, Player target, Card seen) {
+        remember(player, target, seen);
+    }
+
+    @Override
+    public void onKing(GameState game, Player player, Player target) {
+        // Both sides of a swap know what the other one now holds
+        remember(player, target, target.getCurrentCard());
+        remember(target, player, player.getCurrentCard());
+    }
+
+    private void remember(Player bot, Player target, Card card) {
+        if (card != null && bots.containsKey(bot.getId())) {
+            knownCards.computeIfAbsent(bot.getId(), id -> new ConcurrentHashMap<>()).put(target.getId(), card);
+        }
+    }
+}
+
+// src/main/java/com/letterlover/server/service/BotService.java
+package com.letterlover.server.service;
+
+import com.letterlover.common.engine.BotBrain;
+import com.letterlover.common.engine.LegalMoves;
+import com.letterlover.common.model.*;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BotService {
+
+    private final GameService gameService;
+    private final BotMemory botMemory;
+    private final RoomExecutor roomExecutor;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final BotBrain brain = new BotBrain();
+
+    public GameState addBot(String roomCode) {
+        String botId = "bot-" + UUID.randomUUID();
+        GameState game = gameService.getGame(roomCode);
+        String botName = "Bot " + (game != null ? game.getPlayers().size() + 1 : 1);
+
+        botMemory.register(botId, roomCode);
+        try {
+            return gameService.joinRoom(roomCode, botId, botName);
+        } catch (IllegalStateException e) {
+            botMemory.forget(botId);
+            throw e;
+        }
+    }
+
+    public void onStateChanged(GameState game) {
+        if (game.getPhase() != GameState.GamePhase.PLAYING) {
+            return;
+        }
+        Player current = game.getCurrentPlayer();
+        if (current != null && botMemory.isBot(current.getId())) {
+            roomExecutor.execute(game.getRoomCode(), () -> playTurn(game.getRoomCode(), current));
+        }
+    }
+
+    // A bot that cannot make its own move plays the default one, and gives up its seat if even that fails
+    private void playTurn(String roomCode, Player bot) {
+        GameState game = gameService.getGame(roomCode);
+        // The turn clock may have played for the bot while this task was queued
+        if (game == null || game.getPhase() != GameState.GamePhase.PLAYING
+                || !bot.getId().equals(game.getCurrentPlayer().getId())) {
+            return;
+        }
+        try {
+            gameService.playCard(roomCode, brain.decide(game, bot, botMemory.knownCards(bot.getId())));
+        } catch (RuntimeException e) {
+            log.warn("Bot {} could not play in room {}: {}", bot.getName(), roomCode, e.getMessage());
+            try {
+                gameService.playCard(roomCode, LegalMoves.defaultMove(game));
+            } catch (RuntimeException fallback) {
+                log.warn("Bot {} forfeits its seat in room {}: {}", bot.getName(), roomCode, fallback.getMessage());
+                botMemory.forget(bot.getId());
+                if (!gameService.leaveRoom(roomCode, bot.getId())) {
+                    return;
+                }
+            }
+        }
+        messagingTemplate.convertAndSend("/topic/room." + roomCode, gameService.getSnapshot(roomCode));
+        onStateChanged(game);
+    }
+}
+
+// src/main/java/com/letterlover/server/service/TimingWheel.java
+package com.letterlover.server.service;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// Hierarchical timing wheel driven by a single thread; each level covers WHEEL_SIZE times the span of the one below
+class TimingWheel {
+
+    private static final int BITS = 9;
+    private static final int WHEEL_SIZE = 1 << BITS;
+    private static final int MASK = WHEEL_SIZE - 1;
+    private static final int LEVELS = 3;
+
+    private final long tickNanos;
+    private final Consumer<Runnable> dispatcher;
+    private final Timer[][] wheels = new Timer[LEVELS][WHEEL_SIZE];
+    private final Queue<Timer> pending = new ConcurrentLinkedQueue<>();
+    private final long startNanos = System.nanoTime();
+    private final Thread ticker;
+    private volatile boolean running = true;
+    private long currentTick;
+
+    public static final class Timer {
+        private final long deadlineTick;
+        private final Runnable task;
+        private volatile boolean cancelled;
+        private Timer next;
+
+        private Timer(long deadlineTick, Runnable task) {
+            this.deadlineTick = deadlineTick;
+            this.task = task;
+        }
+
+        public void cancel() {
+            cancelled = true;
+        }
+    }
+
+    TimingWheel(long tick, TimeUnit unit, Consumer<Runnable> dispatcher) {
+        this.tickNanos = unit.toNanos(tick);
+        this.dispatcher = dispatcher;
+        this.ticker = new Thread(this::run, "timing-wheel");
+        this.ticker.setDaemon(true);
+        this.ticker.start();
+    }
+
+    public Timer schedule(long delay, TimeUnit unit, Runnable task) {
+        long deadline = (System.nanoTime() - startNanos + unit.toNanos(delay) + tickNanos - 1) / tickNanos;
+        Timer timer = new Timer(deadline, task);
+        pending.offer(timer);
+        return timer;
+    }
+
+    public void stop() {
+        running = false;
+        ticker.interrupt();
+    }
+
+    private void run() {
+        while (running) {
+            long target = (System.nanoTime() - startNanos) / tickNanos;
+            while (currentTick < target) {
+                tick();
+            }
+            long sleepNanos = (currentTick + 1) * tickNanos - (System.nanoTime() - startNanos);
+            if (sleepNanos > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(sleepNanos);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void tick() {
+        currentTick++;
+        for (int level = 1; level < LEVELS; level++) {
+            if ((currentTick & ((1L << (level * BITS)) - 1)) != 0) {
+                break;
+            }
+            int slot = (int) (currentTick >>> (level * BITS)) & MASK;
+            Timer timer = wheels[level][slot];
+            wheels[level][slot] = null;
+            while (timer != null) {
+                Timer next = timer.next;
+                place(timer);
+                timer = next;
+            }
+        }
+
+        Timer timer;
+        while ((timer = pending.poll()) != null) {
+            place(timer);
+        }
+
+        int slot = (int) currentTick & MASK;
+        timer = wheels[0][slot];
+        wheels[0][slot] = null;
+        while (timer != null) {
+            Timer next = timer.next;
+            expire(timer);
+            timer = next;
+        }
+    }
+
+    private void place(Timer timer) {
+        timer.next = null;
+        if (timer.cancelled) {
+            return;
+        }
+        long remaining = timer.deadlineTick - currentTick;
+        if (remaining <= 0) {
+            expire(timer);
+            return;
+        }
+        int level = 0;
+        while (level < LEVELS - 1 && remaining >= 1L << ((level + 1) * BITS)) {
+            level++;
+        }
+        long deadline = Math.min(timer.deadlineTick, currentTick + (1L << (LEVELS * BITS)) - 1);
+        int slot = (int) (deadline >>> (level * BITS)) & MASK;
+        timer.next = wheels[level][slot];
+        wheels[level][slot] = timer;
+    }
+
+    private void expire(Timer timer) {
+        if (!timer.cancelled) {
+            dispatcher.accept(timer.task);
+        }
+    }
+}
+
+// src/main/java/com/letterlover/server/service/TurnClockService.java
+package com.letterlover.server.service;
+
+import com.letterlover.common.dto.GameAction;
+import com.letterlover.common.dto.RoomInfo;
+import com.letterlover.common.engine.GameEventListener;
+import com.letterlover.common.engine.LegalMoves;
+import com.letterlover.common.model.*;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
+@Service
+public class TurnClockService implements GameEventListener {
+
+    private final GameService gameService;
+    private final BotService botService;
+    private final RoomExecutor roomExecutor;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final TimingWheel wheel;
+    private final Map<String, Turn> turns = new ConcurrentHashMap<>();
+    private final AtomicLong turnIds = new AtomicLong();
+
+    private record Turn(long id, TimingWheel.Timer timer) {
+    }
+
+    public TurnClockService(GameService gameService, BotService botService, RoomExecutor roomExecutor,
+                            SimpMessagingTemplate messagingTemplate,
+                            @Value("${letterlover.turn-timer.tick-ms:100}") long tickMillis) {
+        this.gameService = gameService;
+        this.botService = botService;
+        this.roomExecutor = roomExecutor;
+        this.messagingTemplate = messagingTemplate;
+        // Expiries only enqueue a room task, so they can run on the wheel thread itself
+        this.wheel = new TimingWheel(tickMillis, TimeUnit.MILLISECONDS, Runnable::run);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        wheel.stop();
+    }
+
+    @Override
+    public void onTurnStart(GameState game) {
+        String roomCode = game.getRoomCode();
+        cancel(roomCode);
+
+        RoomInfo room = gameService.getRoom(roomCode);
+        if (room == null || room.getTurnSeconds() <= 0) {
+            return;
+        }
+        long turnId = turnIds.incrementAndGet();
+        TimingWheel.Timer timer = wheel.schedule(room.getTurnSeconds(), TimeUnit.SECONDS,
+                () -> roomExecutor.execute(roomCode, () -> expire(roomCode, turnId)));
+        turns.put(roomCode, new Turn(turnId, timer));
+    }
+
+    // No turn is running between rounds, and a finished game's room may be removed at any time
+    @Override
+    public void onRoundEnd(GameState game, Player winner, List<Player> contenders) {
+        cancel(game.getRoomCode());
+    }
+
+    @Override
+    public void onGameEnd(GameState game, Player winner) {
+        cancel(game.getRoomCode());
+    }
+
+    private void cancel(String roomCode) {
+        Turn previous = turns.remove(roomCode);
+        if (previous != null) {
+            previous.timer().cancel();
+        }
+    }
+
+    private void expire(String roomCode, long turnId) {
+        Turn turn = turns.get(roomCode);
+        GameState game = gameService.getGame(roomCode);
+        // The turn may have been played between expiry and this task running
+        if (turn == null || turn.id() != turnId || game == null
+                || game.getPhase() != GameState.GamePhase.PLAYING) {
+            return;
+        }
+        GameAction action = LegalMoves.defaultMove(game);
+        if (action == null) {
+            return;
+        }
+        String note = "Zeit abgelaufen! " + game.getCurrentPlayer().getName() + " hat automatisch gespielt.";
+        gameService.playCard(roomCode, action, note);
+        messagingTemplate.convertAndSend("/topic/room." + roomCode, gameService.getSnapshot(roomCode));
+        botService.onStateChanged(game);
+    }
+}
+
+// src/main/java/com/letterlover/server/controller/GameController.java
+package com.letterlover.server.controller;
+
+import com.letterlover.common.dto.*;
+import com.letterlover.common.engine.RuleSets;
+import com.letterlover.common.model.GameSnapshot;
+import com.letterlover.common.model.GameState;
+import com.letterlover.server.service.BotService;
+import com.letterlover.server.service.GameService;
+import com.letterlover.server.service.PresenceRegistry;
+import com.letterlover.server.service.RoomExecutor;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.handler.annotation.*;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.annotation.SendToUser;
+import org.springframework.messaging.simp.annotation.SubscribeMapping;
+import org.springframework.stereotype.Controller;
+
+import java.util.Map;
+
+@Controller
+@RequiredArgsConstructor
+public class GameController {
+
+    private static final CardCatalog CATALOG = CardCatalog.current();
+
+    private final GameService gameService;
+    private final BotService botService;
+    private final RoomExecutor roomExecutor;
+    private final PresenceRegistry presenceRegistry;
+    private final SimpMessagingTemplate messagingTemplate;
+
+    @SubscribeMapping("/game.catalog")
+    public CardCatalog catalog() {
+        return CATALOG;
+    }
+
+    // Only the creator's session learns the new room; it then subscribes to the room and fetches its state
+    @MessageMapping("/game.createRoom")
+    @SendToUser(destinations = "/queue/rooms", broadcast = false)
+    public RoomInfo createRoom(@Payload Map<String, String> request,
+                               @Header(SimpMessageHeaderAccessor.SESSION_ID_HEADER) String sessionId) {
+        RoomInfo room = gameService.createRoom(
+            request.get("playerId"), 
+            request.get("playerName"),
+            request.getOrDefault("ruleSet", RuleSets.CLASSIC)
+        );
+        presenceRegistry.bind(sessionId, request.get("playerId"), room.getRoomCode());
+        messagingTemplate.convertAndSend("/topic/room." + room.getRoomCode(),
+                gameService.getSnapshot(room.getRoomCode()));
+        return room;
+    }
+
+    // The current state of a room, answered once to the subscribing session
+    @SubscribeMapping("/game.room.{roomCode}")
+    public GameSnapshot room(@DestinationVariable String roomCode) {
+        return gameService.getSnapshot(roomCode);
+    }
+
+    @MessageMapping("/game.joinRoom")
+    public void joinRoom(@Payload Map<String, String> request,
+                         @Header(SimpMessageHeaderAccessor.SESSION_ID_HEADER) String sessionId) {
+        String roomCode = request.get("roomCode");
+        roomExecutor.execute(roomCode, () -> {
+            gameService.joinRoom(
+                roomCode,
+                request.get("playerId"),
+                request.get("playerName")
+            );
+            presenceRegistry.bind(sessionId, request.get("playerId"), roomCode);
+            messagingTemplate.convertAndSend("/topic/room." + roomCode, gameService.getSnapshot(roomCode));
+        });
+    }
+
+    // Explicit counterpart of GameAction.ActionType.LEAVE_ROOM. The player and room come from the
+    // session's presence, never from the payload, so a client can only take its own seat away.
+    @MessageMapping("/game.leaveRoom")
+    public void leaveRoom(@Header(SimpMessageHeaderAccessor.SESSION_ID_HEADER) String sessionId) {
+        presenceRegistry.leaveSession(sessionId);
+    }
+
+    @MessageMapping("/game.addBot")
+    public void addBot(@Payload Map<String, String> request) {
+        String roomCode = request.get("roomCode");
+        roomExecutor.execute(roomCode, () -> {
+            botService.addBot(roomCode);
+            messagingTemplate.convertAndSend("/topic/room." + roomCode, gameService.getSnapshot(roomCode));
+        });
+    }
+
+    @MessageMapping("/game.setTurnTimer")
+    public void setTurnTimer(@Payload Map<String, String> request) {
+        String roomCode = request.get("roomCode");
+        roomExecutor.execute(roomCode, () -> {
+            RoomInfo room = gameService.setTurnSeconds(roomCode, Integer.parseInt(request.get("seconds")));
+            messagingTemplate.convertAndSend("/topic/room." + roomCode + ".info", room);
+        });
+    }
+
+    @MessageMapping("/game.startGame")
+    public void startGame(@Payload Map<String, String> request) {
+        String roomCode = request.get("roomCode");
+        roomExecutor.execute(roomCode, () -> {
+            GameState game = gameService.startGame(roomCode);
+            messagingTemplate.convertAndSend("/topic/room." + roomCode, gameService.getSnapshot(roomCode));
+            botService.onStateChanged(game);
+        });
+    }
+
+    @MessageMapping("/game.playCard")
+    public void playCard(@Payload GameAction action) {
+        String roomCode = action.getRoomCode();
+        roomExecutor.execute(roomCode, () -> {
+            GameState game = gameService.playCard(roomCode, action);
+            messagingTemplate.convertAndSend("/topic/room." + roomCode, gameService.getSnapshot(roomCode));
+            botService.onStateChanged(game);
+        });
+    }
+
+    @MessageMapping("/chat.sendMessage")
+    public void sendChatMessage(@Payload ChatMessage message) {
+        messagingTemplate.convertAndSend("/topic/chat." + message.getRoomCode(), message);
+    }
+}
+
+// src/main/java/com/letterlover/server/service/RoomExecutor.java
+package com.letterlover.server.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.*;
+
+@Slf4j
+@Component
+public class RoomExecutor {
+
+    private final ExecutorService executor;
+    private final Map<String, SerialQueue> queues = new ConcurrentHashMap<>();
+
+    public RoomExecutor(@Value("${letterlover.execution.mode:platform}") String mode) {
+        this.executor = "virtual".equalsIgnoreCase(mode)
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors() * 2);
+        log.info("Room tasks run in {} mode", mode);
+    }
+
+    // Tasks of one room run one at a time in submission order; different rooms run in parallel.
+    // A queue in the map is always being drained: whoever creates it starts its drain, and only the
+    // drain removes it, so no room ever has two queues running at once.
+    public void execute(String roomCode, Runnable task) {
+        boolean[] created = new boolean[1];
+        SerialQueue queue = queues.compute(roomCode, (code, existing) -> {
+            SerialQueue q = existing;
+            if (q == null) {
+                q = new SerialQueue();
+                created[0] = true;
+            }
+            q.tasks.offer(task);
+            return q;
+        });
+        if (created[0]) {
+            executor.execute(() -> drain(roomCode, queue));
+        }
+    }
+
+    private void drain(String roomCode, SerialQueue queue) {
+        do {
+            Runnable task;
+            while ((task = queue.tasks.poll()) != null) {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    log.warn("Task for room {} failed: {}", roomCode, e.getMessage());
+                }
+            }
+            // Retired under the map's lock, so a concurrent execute either lands here first or makes a new queue
+        } while (queues.computeIfPresent(roomCode, (code, q) -> q.tasks.isEmpty() ? null : q) != null);
+    }
+
+    public int getQueueCount() {
+        return queues.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private static class SerialQueue {
+        private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    }
+}
+
+// src/main/java/com/letterlover/server/service/LobbyIndex.java
+package com.letterlover.server.service;
+
+import com.letterlover.common.dto.LobbyUpdate;
+import com.letterlover.common.dto.RoomInfo;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.ToLongFunction;
+
+@Component
+@RequiredArgsConstructor
+public class LobbyIndex {
+
+    private final SimpMessagingTemplate messagingTemplate;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final NavigableSet<Entry> byFill = new ConcurrentSkipListSet<>(
+            Comparator.comparingInt((Entry e) -> -e.room().getPlayerCount())
+                    .thenComparingLong(Entry::openedAt)
+                    .thenComparing(e -> e.room().getRoomCode()));
+    private final NavigableSet<Entry> byAge = new ConcurrentSkipListSet<>(
+            Comparator.comparingLong(Entry::openedAt)
+                    .thenComparing(e -> e.room().getRoomCode()));
+
+    public enum SortOrder {
+        FILL, AGE
+    }
+
+    // The room is copied so listings never expose the live, mutable RoomInfo
+    private record Entry(RoomInfo room, long openedAt) {
+    }
+
+    public void opened(RoomInfo room) {
+        put(room, previous -> System.nanoTime());
+        publish(LobbyUpdate.UpdateType.OPENED, room);
+    }
+
+    // A room that filled up left the index; a seat freed before the start brings it back
+    public void updated(RoomInfo room) {
+        if (room.isGameStarted() || room.getPlayerCount() >= room.getMaxPlayers()) {
+            closed(room.getRoomCode());
+            return;
+        }
+        Entry previous = put(room, old -> old == null ? System.nanoTime() : old.openedAt());
+        publish(previous == null ? LobbyUpdate.UpdateType.OPENED : LobbyUpdate.UpdateType.UPDATED, room);
+    }
+
+    public void closed(String roomCode) {
+        Entry[] removed = new Entry[1];
+        entries.computeIfPresent(roomCode, (code, previous) -> {
+            byFill.remove(previous);
+            byAge.remove(previous);
+            removed[0] = previous;
+            return null;
+        });
+        if (removed[0] != null) {
+            publish(LobbyUpdate.UpdateType.CLOSED, removed[0].room());
+        }
+    }
+
+    public List<RoomInfo> list(SortOrder order, String afterRoomCode, int limit) {
+        NavigableSet<Entry> index = order == SortOrder.AGE ? byAge : byFill;
+        Entry cursor = afterRoomCode != null ? entries.get(afterRoomCode) : null;
+        Iterable<Entry> view = cursor != null ? index.tailSet(cursor, false) : index;
+
+        List<RoomInfo> page = new ArrayList<>(limit);
+        for (Entry entry : view) {
+            if (page.size() >= limit) break;
+            page.add(entry.room());
+        }
+        return page;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    // The sorted sets change only inside the room's own bin of entries, so a close racing an update
+    // cannot leave the room behind in byFill or byAge, while other rooms never wait on it. Broadcasts
+    // happen after the bin is released. Returns the entry that was replaced, if any.
+    private Entry put(RoomInfo room, ToLongFunction<Entry> openedAt) {
+        Entry[] replaced = new Entry[1];
+        entries.compute(room.getRoomCode(), (code, previous) -> {
+            Entry entry = new Entry(copyOf(room), openedAt.applyAsLong(previous));
+            if (previous != null) {
+                byFill.remove(previous);
+                byAge.remove(previous);
+            }
+            byFill.add(entry);
+            byAge.add(entry);
+            replaced[0] = previous;
+            return entry;
+        });
+        return replaced[0];
+    }
+
+    private RoomInfo copyOf(RoomInfo room) {
+        return new RoomInfo(room.getRoomCode(), room.getHostId(), room.getPlayerCount(),
+                room.getMaxPlayers(), room.isGameStarted(), room.getTurnSeconds());
+    }
+
+    private void publish(LobbyUpdate.UpdateType type, RoomInfo room) {
+        messagingTemplate.convertAndSend("/topic/lobby", new LobbyUpdate(type, copyOf(room)));
+    }
+}
+
+// src/main/java/com/letterlover/server/controller/LobbyController.java
+package com.letterlover.server.controller;
+
+import com.letterlover.common.dto.RoomInfo;
+import com.letterlover.server.service.LobbyIndex;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/lobby")
+@RequiredArgsConstructor
+public class LobbyController {
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final LobbyIndex lobbyIndex;
+
+    @GetMapping
+    public List<RoomInfo> openRooms(
+            @RequestParam(defaultValue = "FILL") LobbyIndex.SortOrder sort,
+            @RequestParam(required = false) String after,
+            @RequestParam(defaultValue = "20") int limit) {
+        return lobbyIndex.list(sort, after, Math.max(1, Math.min(limit, MAX_PAGE_SIZE)));
+    }
+}
+
+// src/main/java/com/letterlover/server/service/MatchmakingService.java
+package com.letterlover.server.service;
+
+import com.letterlover.common.dto.RoomInfo;
+import com.letterlover.common.engine.RuleSet;
+import com.letterlover.common.engine.RuleSets;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MatchmakingService {
+
+    // Wait-time histogram buckets: bucket i counts waits below 2^i ms
+    private static final int BUCKETS = 24;
+
+    private final GameService gameService;
+    private final PresenceRegistry presenceRegistry;
+    private final SimpMessagingTemplate messagingTemplate;
+
+    @Value("${letterlover.matchmaking.max-wait-ms:10000}")
+    private long maxWaitMillis;
+
+    @Value("${letterlover.matchmaking.tick-ms:100}")
+    private long tickMillis;
+
+    // Table sizes span every registered rule set, e.g. classic for two to four and grand for five to eight
+    private final int minTable = RuleSets.all().stream().mapToInt(RuleSet::getMinPlayers).min().orElseThrow();
+    private final int maxTable = RuleSets.all().stream().mapToInt(RuleSet::getMaxPlayers).max().orElseThrow();
+    private final List<Queue<Ticket>> queues = new ArrayList<>();
+    private final AtomicInteger[] queued = new AtomicInteger[maxTable + 1];
+    private final Set<String> waiting = ConcurrentHashMap.newKeySet();
+    private final AtomicLongArray waitHistogram = new AtomicLongArray(BUCKETS);
+    private final ScheduledExecutorService matcher = Executors.newSingleThreadScheduledExecutor();
+
+    private record Ticket(String playerId, String playerName, int preferredSize, long enqueuedAt) {
+    }
+
+    @PostConstruct
+    public void start() {
+        for (int size = 0; size <= maxTable; size++) {
+            queues.add(new ConcurrentLinkedQueue<>());
+            queued[size] = new AtomicInteger();
+        }
+        // Runs on the matcher thread so a ticket is never dropped while a tick is seating it
+        presenceRegistry.addDisconnectListener(playerId -> matcher.execute(() -> dequeue(playerId)));
+        matcher.scheduleWithFixedDelay(this::match, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        matcher.shutdownNow();
+    }
+
+    public void enqueue(String playerId, String playerName, int preferredSize) {
+        if (preferredSize < minTable || preferredSize > maxTable) {
+            throw new IllegalStateException("Table size must be between " + minTable + " and " + maxTable);
+        }
+        if (!waiting.add(playerId)) {
+            throw new IllegalStateException("Already queued");
+        }
+        queue(new Ticket(playerId, playerName, preferredSize, System.nanoTime()));
+    }
+
+    private void queue(Ticket ticket) {
+        queues.get(ticket.preferredSize()).offer(ticket);
+        queued[ticket.preferredSize()].incrementAndGet();
+    }
+
+    private void dequeue(String playerId) {
+        if (!waiting.remove(playerId)) {
+            return;
+        }
+        for (int size = minTable; size <= maxTable; size++) {
+            if (queues.get(size).removeIf(ticket -> ticket.playerId().equals(playerId))) {
+                queued[size].decrementAndGet();
+                log.debug("Dropped disconnected player {} from the queue", playerId);
+                return;
+            }
+        }
+    }
+
+    private void match() {
+        try {
+            for (int size = minTable; size <= maxTable; size++) {
+                while (queued[size].get() >= size) {
+                    seat(poll(size, size));
+                }
+            }
+            seatOverdue();
+        } catch (RuntimeException e) {
+            log.error("Matchmaking tick failed", e);
+        }
+    }
+
+    private void seatOverdue() {
+        // Players past the wait cap are seated with whoever is waiting, regardless of preferred size
+        long deadline = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(maxWaitMillis);
+        boolean overdue = false;
+        int total = 0;
+        for (int size = minTable; size <= maxTable; size++) {
+            Ticket head = queues.get(size).peek();
+            overdue |= head != null && head.enqueuedAt() < deadline;
+            total += queued[size].get();
+        }
+        if (!overdue || total < minTable) {
+            return;
+        }
+
+        List<Ticket> pool = new ArrayList<>(total);
+        for (int size = minTable; size <= maxTable; size++) {
+            pool.addAll(poll(size, queued[size].get()));
+        }
+        pool.sort(Comparator.comparingLong(Ticket::enqueuedAt));
+        int i = 0;
+        while (pool.size() - i >= minTable) {
+            int table = Math.min(maxTable, pool.size() - i);
+            seat(pool.subList(i, i + table));
+            i += table;
+        }
+        // Whoever is left keeps the table size they asked for
+        pool.subList(i, pool.size()).forEach(this::queue);
+    }
+
+    private List<Ticket> poll(int size, int count) {
+        List<Ticket> tickets = new ArrayList<>(count);
+        Queue<Ticket> queue = queues.get(size);
+        for (int i = 0; i < count; i++) {
+            Ticket ticket = queue.poll();
+            if (ticket == null) break;
+            queued[size].decrementAndGet();
+            tickets.add(ticket);
+        }
+        return tickets;
+    }
+
+    private void seat(List<Ticket> tickets) {
+        long now = System.nanoTime();
+        Ticket host = tickets.get(0);
+        RoomInfo room = null;
+        try {
+            room = gameService.createRoom(host.playerId(), host.playerName(), ruleSetFor(tickets.size()));
+            for (Ticket ticket : tickets.subList(1, tickets.size())) {
+                gameService.joinRoom(room.getRoomCode(), ticket.playerId(), ticket.playerName());
+            }
+            gameService.startGame(room.getRoomCode());
+        } catch (RuntimeException e) {
+            // The tickets are already out of the queues; free the players so they can queue again
+            log.warn("Could not seat {} matched players: {}", tickets.size(), e.getMessage());
+            if (room != null) {
+                gameService.removeRoom(room.getRoomCode());
+            }
+            tickets.forEach(ticket -> waiting.remove(ticket.playerId()));
+            return;
+        }
+
+        for (Ticket ticket : tickets) {
+            waiting.remove(ticket.playerId());
+            presenceRegistry.enterRoom(ticket.playerId(), room.getRoomCode());
+            recordWait(TimeUnit.NANOSECONDS.toMillis(now - ticket.enqueuedAt()));
+            messagingTemplate.convertAndSend("/topic/match." + ticket.playerId(), room);
+        }
+        messagingTemplate.convertAndSend("/topic/room." + room.getRoomCode(),
+                gameService.getSnapshot(room.getRoomCode()));
+        log.debug("Matched {} players into room {}", tickets.size(), room.getRoomCode());
+    }
+
+    // The rule set whose seat range covers the table, the narrowest one if several do
+    private String ruleSetFor(int players) {
+        return RuleSets.all().stream()
+                .filter(rules -> rules.getMinPlayers() <= players && players <= rules.getMaxPlayers())
+                .min(Comparator.comparingInt(RuleSet::getMaxPlayers))
+                .map(RuleSet::getId)
+                .orElseThrow(() -> new IllegalStateException("No rule set seats " + players + " players"));
+    }
+
+    private void recordWait(long millis) {
+        int bucket = 64 - Long.numberOfLeadingZeros(millis);
+        waitHistogram.incrementAndGet(Math.min(bucket, BUCKETS - 1));
+    }
+
+    public int getQueuedPlayers() {
+        return waiting.size();
+    }
+
+    public Map<String, Long> getWaitPercentiles() {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = waitHistogram.get(i);
+            total += counts[i];
+        }
+        Map<String, Long> percentiles = new LinkedHashMap<>();
+        percentiles.put("p50", percentile(counts, total, 0.50));
+        percentiles.put("p90", percentile(counts, total, 0.90));
+        percentiles.put("p99", percentile(counts, total, 0.99));
+        return percentiles;
+    }
+
+    private long percentile(long[] counts, long total, double quantile) {
+        if (total == 0) return 0;
+        long rank = (long) Math.ceil(total * quantile);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                // Upper bound of the bucket in milliseconds
+                return 1L << i;
+            }
+        }
+        return 1L << (BUCKETS - 1);
+    }
+}
+
+// src/main/java/com/letterlover/server/controller/MatchmakingController.java
+package com.letterlover.server.controller;
+
+import com.letterlover.server.service.MatchmakingService;
+import com.letterlover.server.service.PresenceRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.handler.annotation.*;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@RestController
+@RequiredArgsConstructor
+public class MatchmakingController {
+
+    private final MatchmakingService matchmakingService;
+    private final PresenceRegistry presenceRegistry;
+
+    @MessageMapping("/game.quickPlay")
+    public void quickPlay(@Payload Map<String, String> request,
+                          @Header(SimpMessageHeaderAccessor.SESSION_ID_HEADER) String sessionId) {
+        presenceRegistry.bind(sessionId, request.get("playerId"), null);
+        matchmakingService.enqueue(
+            request.get("playerId"),
+            request.get("playerName"),
+            Integer.parseInt(request.getOrDefault("tableSize", "4"))
+        );
+    }
+
+    @GetMapping("/api/matchmaking/stats")
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queued", matchmakingService.getQueuedPlayers());
+        stats.put("waitMillis", matchmakingService.getWaitPercentiles());
+        return stats;
+    }
+}
+
+// src/main/java/com/letterlover/server/model/PlayerStats.java
+package com.letterlover.server.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+public class PlayerStats {
+    @Id
+    private String playerId;
+    private String playerName;
+    private int gamesWon;
+    private int tokens;
+    private int roundsPlayed;
+}
+
+// src/main/java/com/letterlover/server/repository/PlayerStatsRepository.java
+package com.letterlover.server.repository;
+
+import com.letterlover.server.model.PlayerStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface PlayerStatsRepository extends JpaRepository<PlayerStats, String> {
+}
+
+// src/main/java/com/letterlover/server/service/RankIndex.java
+package com.letterlover.server.service;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Indexable skip list: every link records how many entries it skips, giving O(log n) rank queries
+class RankIndex<T> {
+
+    private static final int MAX_LEVEL = 32;
+
+    private final Comparator<? super T> order;
+    private final Node<T> head = new Node<>(null, MAX_LEVEL);
+    private int level = 1;
+    private int size;
+
+    private static final class Node<T> {
+        private final T value;
+        private final Node<T>[] next;
+        private final int[] span;
+
+        @SuppressWarnings("unchecked")
+        private Node(T value, int levels) {
+            this.value = value;
+            this.next = new Node[levels];
+            this.span = new int[levels];
+        }
+    }
+
+    RankIndex(Comparator<? super T> order) {
+        this.order = order;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void add(T value) {
+        @SuppressWarnings("unchecked")
+        Node<T>[] update = new Node[MAX_LEVEL];
+        int[] rank = new int[MAX_LEVEL];
+        Node<T> x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            rank[i] = i == level - 1 ? 0 : rank[i + 1];
+            while (x.next[i] != null && order.compare(x.next[i].value, value) < 0) {
+                rank[i] += x.span[i];
+                x = x.next[i];
+            }
+            update[i] = x;
+        }
+
+        int levels = randomLevel();
+        if (levels > level) {
+            for (int i = level; i < levels; i++) {
+                rank[i] = 0;
+                update[i] = head;
+                update[i].span[i] = size;
+            }
+            level = levels;
+        }
+
+        Node<T> node = new Node<>(value, levels);
+        for (int i = 0; i < levels; i++) {
+            node.next[i] = update[i].next[i];
+            update[i].next[i] = node;
+            node.span[i] = update[i].span[i] - (rank[0] - rank[i]);
+            update[i].span[i] = rank[0] - rank[i] + 1;
+        }
+        for (int i = levels; i < level; i++) {
+            update[i].span[i]++;
+        }
+        size++;
+    }
+
+    public boolean remove(T value) {
+        @SuppressWarnings("unchecked")
+        Node<T>[] update = new Node[MAX_LEVEL];
+        Node<T> x = head;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && order.compare(x.next[i].value, value) < 0) {
+                x = x.next[i];
+            }
+            update[i] = x;
+        }
+        x = x.next[0];
+        if (x == null || order.compare(x.value, value) != 0) {
+            return false;
+        }
+
+        for (int i = 0; i < level; i++) {
+            if (update[i].next[i] == x) {
+                update[i].span[i] += x.span[i] - 1;
+                update[i].next[i] = x.next[i];
+            } else {
+                update[i].span[i]--;
+            }
+        }
+        while (level > 1 && head.next[level - 1] == null) {
+            level--;
+        }
+        size--;
+        return true;
+    }
+
+    // 1-based rank, or 0 when the value is not indexed
+    public int rankOf(T value) {
+        Node<T> x = head;
+        int rank = 0;
+        for (int i = level - 1; i >= 0; i--) {
+            while (x.next[i] != null && order.compare(x.next[i].value, value) <= 0) {
+                rank += x.span[i];
+                x = x.next[i];
+            }
+            if (x != head && order.compare(x.value, value) == 0) {
+                return rank;
+            }
+        }
+        return 0;
+    }
+
+    public List<T> range(int fromRank, int count) {
+        List<T> result = new ArrayList<>(Math.max(0, count));
+        if (fromRank < 1 || fromRank > size) {
+            return result;
+        }
+        Node<T> x = head;
+        int traversed = 0;
+        for (int i = level - 1; i >= 0 && traversed < fromRank; i--) {
+            while (x.next[i] != null && traversed + x.span[i] <= fromRank) {
+                traversed += x.span[i];
+                x = x.next[i];
+            }
+        }
+        while (x != null && result.size() < count) {
+            result.add(x.value);
+            x = x.next[0];
+        }
+        return result;
+    }
+
+    private int randomLevel() {
+        int levels = 1;
+        while (levels < MAX_LEVEL && ThreadLocalRandom.current().nextInt(4) == 0) {
+            levels++;
+        }
+        return levels;
+    }
+}
+
+// src/main/java/com/letterlover/server/service/LeaderboardService.java
+package com.letterlover.server.service;
+
+import com.letterlover.common.dto.LeaderboardEntry;
+import com.letterlover.common.engine.GameEventListener;
+import com.letterlover.common.model.*;
+import com.letterlover.server.model.PlayerStats;
+import com.letterlover.server.repository.PlayerStatsRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LeaderboardService implements GameEventListener {
+
+    private static final Comparator<PlayerStats> RANKING = Comparator
+            .comparingInt(PlayerStats::getGamesWon).reversed()
+            .thenComparing(Comparator.comparingInt(PlayerStats::getTokens).reversed())
+            .thenComparing(PlayerStats::getPlayerId);
+
+    // Absent when persistence is switched off, e.g. in the faststart profile
+    private final ObjectProvider<PlayerStatsRepository> repository;
+    private final BotMemory botMemory;
+
+    // Stats objects in the index are never mutated; an update replaces the entry
+    private final Map<String, PlayerStats> current = new ConcurrentHashMap<>();
+    private final RankIndex<PlayerStats> index = new RankIndex<>(RANKING);
+    private final ExecutorService writer = Executors.newSingleThreadExecutor();
+
+    @PostConstruct
+    public void load() {
+        repository.ifAvailable(repo -> {
+            synchronized (index) {
+                for (PlayerStats stats : repo.findAll()) {
+                    current.put(stats.getPlayerId(), stats);
+                    index.add(stats);
+                }
+            }
+        });
+        log.info("Leaderboard loaded with {} players", current.size());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writer.shutdown();
+    }
+
+    @Override
+    public void onRoundEnd(GameState game, Player winner, List<Player> contenders) {
+        // Capture what is needed now; the game state keeps changing after this call
+        List<String[]> players = new ArrayList<>();
+        for (Player p : game.getPlayers()) {
+            if (!botMemory.isBot(p.getId())) {
+                players.add(new String[]{p.getId(), p.getName()});
+            }
+        }
+        String winnerId = winner.getId();
+        writer.execute(() -> players.forEach(p ->
+                update(p[0], p[1], 0, p[0].equals(winnerId) ? 1 : 0, 1)));
+    }
+
+    @Override
+    public void onGameEnd(GameState game, Player winner) {
+        if (botMemory.isBot(winner.getId())) {
+            return;
+        }
+        String id = winner.getId();
+        String name = winner.getName();
+        writer.execute(() -> update(id, name, 1, 0, 0));
+    }
+
+    private void update(String playerId, String playerName, int gamesWon, int tokens, int rounds) {
+        try {
+            PlayerStats before = lookup(playerId);
+            PlayerStats after = before == null
+                    ? new PlayerStats(playerId, playerName, gamesWon, tokens, rounds)
+                    : new PlayerStats(playerId, playerName, before.getGamesWon() + gamesWon,
+                            before.getTokens() + tokens, before.getRoundsPlayed() + rounds);
+            synchronized (index) {
+                if (before != null) {
+                    index.remove(before);
+                }
+                index.add(after);
+                current.put(playerId, after);
+            }
+            repository.ifAvailable(repo -> repo.save(after));
+        } catch (RuntimeException e) {
+            log.error("Failed to update leaderboard for {}", playerId, e);
+        }
+    }
+
+    public List<LeaderboardEntry> top(int count) {
+        return range(1, count);
+    }
+
+    public Optional<LeaderboardEntry> find(String playerId) {
+        PlayerStats stats = lookup(playerId);
+        if (stats == null) {
+            return Optional.empty();
+        }
+        int rank;
+        synchronized (index) {
+            rank = index.rankOf(stats);
+        }
+        return rank == 0 ? Optional.empty() : Optional.of(toEntry(rank, stats));
+    }
+
+    // The index is filled from the repository at startup; a miss still reads through, e.g. for a row
+    // stored after the load, and an update never starts a known player over from zero
+    private PlayerStats lookup(String playerId) {
+        PlayerStats stats = current.get(playerId);
+        PlayerStatsRepository repo = repository.getIfAvailable();
+        if (stats != null || repo == null) {
+            return stats;
+        }
+        PlayerStats stored = repo.findById(playerId).orElse(null);
+        if (stored == null) {
+            return null;
+        }
+        synchronized (index) {
+            PlayerStats existing = current.putIfAbsent(playerId, stored);
+            if (existing != null) {
+                return existing;
+            }
+            index.add(stored);
+        }
+        return stored;
+    }
+
+    public List<LeaderboardEntry> around(int rank, int radius) {
+        int from = Math.max(1, rank - radius);
+        return range(from, rank + radius - from + 1);
+    }
+
+    private List<LeaderboardEntry> range(int fromRank, int count) {
+        List<PlayerStats> page;
+        synchronized (index) {
+            page = index.range(fromRank, count);
+        }
+        List<LeaderboardEntry> entries = new ArrayList<>(page.size());
+        for (int i = 0; i < page.size(); i++) {
+            entries.add(toEntry(fromRank + i, page.get(i)));
+        }
+        return entries;
+    }
+
+    private LeaderboardEntry toEntry(int rank, PlayerStats stats) {
+        return new LeaderboardEntry(rank, stats.getPlayerId(), stats.getPlayerName(),
+                stats.getGamesWon(), stats.getTokens(), stats.getRoundsPlayed());
+    }
+}
+
+// src/main/java/com/letterlover/server/controller/LeaderboardController.java
+package com.letterlover.server.controller;
+
+import com.letterlover.common.dto.LeaderboardEntry;
+import com.letterlover.server.service.LeaderboardService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/leaderboard")
+@RequiredArgsConstructor
+public class LeaderboardController {
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final LeaderboardService leaderboardService;
+
+    @GetMapping
+    public List<LeaderboardEntry> top(@RequestParam(defaultValue = "10") int limit) {
+        return leaderboardService.top(Math.max(1, Math.min(limit, MAX_PAGE_SIZE)));
+    }
+
+    @GetMapping("/players/{playerId}")
+    public ResponseEntity<LeaderboardEntry> player(@PathVariable String playerId) {
+        return ResponseEntity.of(leaderboardService.find(playerId));
+    }
+
+    @GetMapping("/around")
+    public List<LeaderboardEntry> around(@RequestParam int rank, @RequestParam(defaultValue = "5") int radius) {
+        return leaderboardService.around(rank, Math.max(0, Math.min(radius, MAX_PAGE_SIZE / 2)));
+    }
+}
+
+// src/main/java/com/letterlover/server/service/TournamentService.java
+package com.letterlover.server.service;
+
+import com.letterlover.common.dto.RoomInfo;
+import com.letterlover.common.dto.TournamentStanding;
+import com.letterlover.common.engine.GameEventListener;
+import com.letterlover.common.model.*;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TournamentService implements GameEventListener {
+
+    private static final int TABLE_SIZE = 4;
+
+    private final GameService gameService;
+    private final BotService botService;
+    private final RoomExecutor roomExecutor;
+    private final SimpMessagingTemplate messagingTemplate;
+
+    private final Map<String, Tournament> tournaments = new ConcurrentHashMap<>();
+    private final Map<String, Tournament> tablesByRoom = new ConcurrentHashMap<>();
+
+    public enum Format {
+        SWISS, BRACKET
+    }
+
+    private static class Tournament {
+        private final String id;
+        private final Format format;
+        private final int totalRounds;
+        private final Map<String, String> players = new ConcurrentHashMap<>();
+        private final Map<String, AtomicInteger> points = new ConcurrentHashMap<>();
+        private final Map<String, AtomicInteger> tokens = new ConcurrentHashMap<>();
+        private final Set<String> eliminated = ConcurrentHashMap.newKeySet();
+        private final AtomicInteger openTables = new AtomicInteger();
+        private volatile int round;
+        private volatile boolean finished;
+
+        private Tournament(String id, Format format, int totalRounds) {
+            this.id = id;
+            this.format = format;
+            this.totalRounds = totalRounds;
+        }
+    }
+
+    public String create(Format format, int rounds) {
+        String id = UUID.randomUUID().toString().substring(0, 8);
+        tournaments.put(id, new Tournament(id, format, Math.max(1, rounds)));
+        log.info("Tournament {} created ({}, {} rounds)", id, format, rounds);
+        return id;
+    }
+
+    public void register(String tournamentId, String playerId, String playerName) {
+        Tournament t = find(tournamentId);
+        if (t.round > 0) {
+            throw new IllegalStateException("Tournament already started");
+        }
+        t.players.put(playerId, playerName);
+        t.points.put(playerId, new AtomicInteger());
+        t.tokens.put(playerId, new AtomicInteger());
+    }
+
+    public synchronized void start(String tournamentId) {
+        Tournament t = find(tournamentId);
+        if (t.round > 0 || t.finished) {
+            throw new IllegalStateException("Tournament already started");
+        }
+        if (t.players.size() < 2) {
+            throw new IllegalStateException("Need at least 2 players");
+        }
+        startRound(t);
+    }
+
+    public List<TournamentStanding> standings(String tournamentId) {
+        Tournament t = find(tournamentId);
+        List<TournamentStanding> standings = new ArrayList<>();
+        t.players.forEach((id, name) -> standings.add(new TournamentStanding(
+                id, name, t.points.get(id).get(), t.tokens.get(id).get(), t.eliminated.contains(id))));
+        standings.sort(Comparator.comparing(TournamentStanding::isEliminated)
+                .thenComparing(Comparator.comparingInt(TournamentStanding::getPoints).reversed())
+                .thenComparing(Comparator.comparingInt(TournamentStanding::getTokens).reversed()));
+        return standings;
+    }
+
+    private Tournament find(String tournamentId) {
+        Tournament t = tournaments.get(tournamentId);
+        if (t == null) {
+            throw new IllegalStateException("Tournament not found");
+        }
+        return t;
+    }
+
+    private synchronized void startRound(Tournament t) {
+        List<String> seated = new ArrayList<>();
+        for (TournamentStanding standing : standings(t.id)) {
+            if (!standing.isEliminated()) {
+                seated.add(standing.getPlayerId());
+            }
+        }
+        if (seated.size() < 2 || (t.format == Format.SWISS && t.round >= t.totalRounds)) {
+            finish(t);
+            return;
+        }
+        t.round++;
+
+        // Swiss pairs players of similar standing; brackets keep seeding order
+        List<List<String>> tables = partition(seated);
+        t.openTables.set(tables.size());
+        for (List<String> table : tables) {
+            seat(t, table);
+        }
+        log.info("Tournament {} round {} started with {} tables", t.id, t.round, tables.size());
+    }
+
+    private List<List<String>> partition(List<String> players) {
+        int tableCount = (players.size() + TABLE_SIZE - 1) / TABLE_SIZE;
+        List<List<String>> tables = new ArrayList<>(tableCount);
+        int base = players.size() / tableCount;
+        int extra = players.size() % tableCount;
+        int from = 0;
+        for (int i = 0; i < tableCount; i++) {
+            int size = base + (i < extra ? 1 : 0);
+            tables.add(players.subList(from, from + size));
+            from += size;
+        }
+        return tables;
+    }
+
+    // A table that cannot be set up is dropped like any removed room, so the round does not wait on it
+    private void seat(Tournament t, List<String> table) {
+        String host = table.get(0);
+        RoomInfo room;
+        try {
+            room = gameService.createRoom(host, t.players.get(host));
+        } catch (RuntimeException e) {
+            log.warn("Tournament {} could not open a table: {}", t.id, e.getMessage());
+            tableClosed(t);
+            return;
+        }
+        String roomCode = room.getRoomCode();
+        tablesByRoom.put(roomCode, t);
+
+        // Tables are set up on their own room queue so rounds start in parallel
+        roomExecutor.execute(roomCode, () -> {
+            GameState game;
+            try {
+                for (String playerId : table.subList(1, table.size())) {
+                    gameService.joinRoom(roomCode, playerId, t.players.get(playerId));
+                }
+                game = gameService.startGame(roomCode);
+            } catch (RuntimeException e) {
+                log.warn("Tournament {} could not seat table {}: {}", t.id, roomCode, e.getMessage());
+                gameService.removeRoom(roomCode);
+                return;
+            }
+            for (String playerId : table) {
+                messagingTemplate.convertAndSend("/topic/match." + playerId, gameService.getRoom(roomCode));
+            }
+            messagingTemplate.convertAndSend("/topic/room." + roomCode, gameService.getSnapshot(roomCode));
+            botService.onStateChanged(game);
+        });
+    }
+
+    @Override
+    public void onRoundEnd(GameState game, Player winner, List<Player> contenders) {
+        Tournament t = tablesByRoom.get(game.getRoomCode());
+        if (t == null) {
+            return;
+        }
+        t.tokens.get(winner.getId()).incrementAndGet();
+
+        // Queued behind the current action, so the ROUND_END state is broadcast first
+        String roomCode = game.getRoomCode();
+        roomExecutor.execute(roomCode, () -> {
+            GameState current = gameService.getGame(roomCode);
+            if (current != null && current.getPhase() == GameState.GamePhase.ROUND_END) {
+                GameState next = gameService.startGame(roomCode);
+                messagingTemplate.convertAndSend("/topic/room." + roomCode, gameService.getSnapshot(roomCode));
+                botService.onStateChanged(next);
+            }
+        });
+    }
+
+    @Override
+    public void onGameEnd(GameState game, Player winner) {
+        Tournament t = tablesByRoom.remove(game.getRoomCode());
+        if (t == null) {
+            return;
+        }
+        t.points.get(winner.getId()).incrementAndGet();
+        if (t.format == Format.BRACKET) {
+            for (Player p : game.getPlayers()) {
+                if (!p.getId().equals(winner.getId())) {
+                    t.eliminated.add(p.getId());
+                }
+            }
+        }
+        messagingTemplate.convertAndSend("/topic/tournament." + t.id, standings(t.id));
+        tableClosed(t);
+    }
+
+    // A table removed before its game ended, e.g. after every player left, scores nobody
+    @Override
+    public void onRoomRemoved(String roomCode) {
+        Tournament t = tablesByRoom.remove(roomCode);
+        if (t != null) {
+            log.info("Tournament {} table {} closed without a result", t.id, roomCode);
+            tableClosed(t);
+        }
+    }
+
+    private void tableClosed(Tournament t) {
+        if (t.openTables.decrementAndGet() == 0) {
+            // The last table to finish opens the next round; other tables never wait on each other
+            roomExecutor.execute("tournament." + t.id, () -> startRound(t));
+        }
+    }
+
+    private void finish(Tournament t) {
+        if (!t.finished) {
+            t.finished = true;
+            messagingTemplate.convertAndSend("/topic/tournament." + t.id, standings(t.id));
+            log.info("Tournament {} finished after {} rounds", t.id, t.round);
+        }
+    }
+}
+
+// src/main/java/com/letterlover/server/controller/TournamentController.java
+package com.letterlover.server.controller;
+
+import com.letterlover.common.dto.TournamentStanding;
+import com.letterlover.server.service.TournamentService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/tournaments")
+@RequiredArgsConstructor
+public class TournamentController {
+
+    private final TournamentService tournamentService;
+
+    @PostMapping
+    public Map<String, String> create(@RequestBody Map<String, String> request) {
+        String id = tournamentService.create(
+            TournamentService.Format.valueOf(request.getOrDefault("format", "SWISS")),
+            Integer.parseInt(request.getOrDefault("rounds", "3"))
+        );
+        return Map.of("tournamentId", id);
+    }
+
+    @PostMapping("/{id}/players")
+    public void register(@PathVariable String id, @RequestBody Map<String, String> request) {
+        tournamentService.register(id, request.get("playerId"), request.get("playerName"));
+    }
+
+    @PostMapping("/{id}/start")
+    public void start(@PathVariable String id) {
+        tournamentService.start(id);
+    }
+
+    @GetMapping("/{id}/standings")
+    public List<TournamentStanding> standings(@PathVariable String id) {
+        return tournamentService.standings(id);
+    }
+}
+
+// src/main/java/com/letterlover/server/service/AdminFeed.java
+package com.letterlover.server.service;
+
+import com.letterlover.common.dto.GameAction;
+import com.letterlover.common.engine.GameEventListener;
+import com.letterlover.common.model.*;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+
+@Slf4j
+@Component
+public class AdminFeed implements GameEventListener {
+
+    private static final int SUBSCRIBER_BUFFER = 1024;
+    // How long a subscriber's thread waits for an event before checking whether it was dropped
+    private static final long IDLE_CHECK_SECONDS = 5;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final LongAdder dropped = new LongAdder();
+
+    public record FeedEvent(String type, String roomCode, int round, String playerId, String targetId,
+                            CardType card, CardType guess, long timestamp) {
+    }
+
+    private class Subscriber {
+        private final SseEmitter emitter;
+        private final BlockingQueue<FeedEvent> queue = new ArrayBlockingQueue<>(SUBSCRIBER_BUFFER);
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        private void offer(FeedEvent event) {
+            // Never block a game thread: a slow subscriber just loses events
+            if (!queue.offer(event)) {
+                dropped.increment();
+            }
+        }
+
+        private void pump() {
+            try {
+                while (subscribers.contains(this)) {
+                    FeedEvent event = queue.poll(IDLE_CHECK_SECONDS, TimeUnit.SECONDS);
+                    if (event != null) {
+                        emitter.send(SseEmitter.event().name(event.type()).data(event));
+                    }
+                }
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Admin feed subscriber disconnected: {}", e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                subscribers.remove(this);
+            }
+        }
+    }
+
+    public SseEmitter subscribe() {
+        SseEmitter emitter = new SseEmitter(0L);
+        Subscriber subscriber = new Subscriber(emitter);
+        subscribers.add(subscriber);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        Thread.ofVirtual().name("admin-feed").start(subscriber::pump);
+        return emitter;
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    @Override
+    public void onCardPlayed(GameState game, Player player, GameAction action) {
+        publish("card", game, player.getId(), action.getTargetPlayerId(), action.getCardType(), action.getGuessedCard());
+    }
+
+    @Override
+    public void onRoundEnd(GameState game, Player winner, List<Player> contenders) {
+        publish("round", game, winner.getId(), null, null, null);
+    }
+
+    @Override
+    public void onGameEnd(GameState game, Player winner) {
+        publish("game", game, winner.getId(), null, null, null);
+    }
+
+    private void publish(String type, GameState game, String playerId, String targetId, CardType card, CardType guess) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        FeedEvent event = new FeedEvent(type, game.getRoomCode(), game.getRoundNumber(), playerId, targetId,
+                card, guess, System.currentTimeMillis());
+        for (Subscriber subscriber : subscribers) {
+            subscriber.offer(event);
+        }
+    }
+}
+
+// src/main/java/com/letterlover/server/controller/AdminController.java
+package com.letterlover.server.controller;
+
+import com.letterlover.common.dto.RoomInfo;
+import com.letterlover.common.model.GameSnapshot;
+import com.letterlover.common.model.GameState;
+import com.letterlover.server.config.AdmissionControl;
+import com.letterlover.server.config.CompressionStats;
+import com.letterlover.server.service.AdminFeed;
+import com.letterlover.server.service.GameService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.*;
+
+@RestController
+@RequestMapping("/admin")
+@RequiredArgsConstructor
+public class AdminController {
+
+    private final GameService gameService;
+    private final AdminFeed adminFeed;
+    private final CompressionStats compressionStats;
+    private final AdmissionControl admissionControl;
+
+    @GetMapping("/rooms")
+    public List<Map<String, Object>> rooms(@RequestParam(required = false) GameState.GamePhase phase) {
+        List<Map<String, Object>> rooms = new ArrayList<>();
+        for (GameSnapshot snapshot : gameService.getSnapshots()) {
+            if (phase == null || snapshot.getPhase() == phase) {
+                Map<String, Object> room = new LinkedHashMap<>();
+                room.put("roomCode", snapshot.getRoomCode());
+                room.put("phase", snapshot.getPhase());
+                room.put("round", snapshot.getRoundNumber());
+                room.put("players", snapshot.getPlayers().size());
+                rooms.add(room);
+            }
+        }
+        return rooms;
+    }
+
+    @GetMapping("/rooms/{roomCode}")
+    public ResponseEntity<Map<String, Object>> room(@PathVariable String roomCode) {
+        GameSnapshot snapshot = gameService.getSnapshot(roomCode);
+        RoomInfo room = gameService.getRoom(roomCode);
+        if (snapshot == null || room == null) {
+            return ResponseEntity.notFound().build();
+        }
+        Map<String, Object> details = new LinkedHashMap<>();
+        details.put("room", room);
+        details.put("state", snapshot);
+        return ResponseEntity.ok(details);
+    }
+
+    @GetMapping("/feed")
+    public SseEmitter feed() {
+        return adminFeed.subscribe();
+    }
+
+    @GetMapping("/feed/dropped")
+    public long dropped() {
+        return adminFeed.getDropped();
+    }
+
+    @GetMapping("/compression")
+    public Map<String, Object> compression() {
+        return compressionStats.snapshot();
+    }
+
+    @GetMapping("/admission")
+    public Map<String, Object> admission() {
+        return admissionControl.snapshot();
+    }
+}
+
+// src/main/java/com/letterlover/server/service/GameArchive.java
+package com.letterlover.server.service;
+
+import com.letterlover.common.dto.ArchivedGame;
+import com.letterlover.common.engine.GameEventListener;
+import com.letterlover.common.model.*;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Finished games live outside the Java heap in fixed-size segments; only the offset index stays on heap
+@Slf4j
+@Service
+public class GameArchive implements GameEventListener {
+
+    private static final int SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    private final GameService gameService;
+    private final RoomExecutor roomExecutor;
+    private final FileChannel channel;
+    private final List<ByteBuffer> segments = new ArrayList<>();
+    private final Map<String, Long> byRoom = new ConcurrentHashMap<>();
+    private final Map<String, long[]> byPlayer = new ConcurrentHashMap<>();
+    private volatile ByteBuffer[] readable = new ByteBuffer[0];
+    private ByteBuffer current;
+
+    public GameArchive(GameService gameService, RoomExecutor roomExecutor,
+                       @Value("${letterlover.archive.file:}") String file) throws IOException {
+        this.gameService = gameService;
+        this.roomExecutor = roomExecutor;
+        // Without a file the segments are direct buffers: off-heap, but gone on restart
+        this.channel = file.isBlank() ? null : FileChannel.open(Path.of(file),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (channel != null && channel.size() > 0) {
+            reopen();
+        }
+    }
+
+    // Maps the existing segments again and rebuilds the index; appends continue after the last record.
+    // Unused space in a mapped segment reads as zeros, so a zero length marks the end of its records.
+    private void reopen() throws IOException {
+        segments:
+        for (long base = 0; base < channel.size(); base += SEGMENT_SIZE) {
+            current = channel.map(FileChannel.MapMode.READ_WRITE, base, SEGMENT_SIZE);
+            segments.add(current);
+            int position = 0;
+            while (position + Integer.BYTES <= SEGMENT_SIZE && current.getInt(position) != 0) {
+                ArchivedGame game = intact(current, position);
+                if (game == null) {
+                    // A record cut short by a crash. Cutting the file there drops it and any stale bytes
+                    // behind it, which a later reopen would otherwise read as records after the new games.
+                    log.warn("Archive ends in a corrupt record at {}, truncating it", base + position);
+                    channel.truncate(base + position);
+                    current = channel.map(FileChannel.MapMode.READ_WRITE, base, SEGMENT_SIZE);
+                    segments.set(segments.size() - 1, current);
+                    current.position(position);
+                    break segments;
+                }
+                long offset = ((long) (segments.size() - 1) << 32) | position;
+                List<String> playerIds = game.getStandings().stream().map(ArchivedGame.Standing::getPlayerId).toList();
+                index(game.getRoomCode(), playerIds, offset);
+                position += Integer.BYTES + current.getInt(position);
+            }
+            current.position(position);
+        }
+        readable = segments.toArray(new ByteBuffer[0]);
+        log.info("Reopened archive with {} games", byRoom.size());
+    }
+
+    // Null unless the record fits in its segment and decodes to exactly its length with a room code;
+    // a torn write usually leaves zeros behind, which decode on their own as empty fields
+    private ArchivedGame intact(ByteBuffer segment, int position) {
+        int length = segment.getInt(position);
+        if (length <= 0 || length > SEGMENT_SIZE - Integer.BYTES - position) {
+            return null;
+        }
+        byte[] record = new byte[length];
+        segment.get(position + Integer.BYTES, record);
+        ByteArrayInputStream bytes = new ByteArrayInputStream(record);
+        try {
+            ArchivedGame game = decode(new DataInputStream(bytes));
+            return bytes.available() == 0 && !game.getRoomCode().isEmpty() ? game : null;
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    @Override
+    public void onGameEnd(GameState game, Player winner) {
+        String roomCode = game.getRoomCode();
+        try {
+            long offset = append(encode(game, winner));
+            index(roomCode, game.getPlayers().stream().map(Player::getId).toList(), offset);
+            // Runs after the final state has been broadcast
+            roomExecutor.execute(roomCode, () -> gameService.removeRoom(roomCode));
+        } catch (IOException | RuntimeException e) {
+            log.error("Failed to archive room {}", roomCode, e);
+        }
+    }
+
+    private void index(String roomCode, List<String> playerIds, long offset) {
+        byRoom.put(roomCode, offset);
+        for (String playerId : playerIds) {
+            byPlayer.merge(playerId, new long[]{offset}, (a, b) -> {
+                long[] merged = Arrays.copyOf(a, a.length + 1);
+                merged[a.length] = b[0];
+                return merged;
+            });
+        }
+    }
+
+    public Optional<ArchivedGame> find(String roomCode) {
+        Long offset = byRoom.get(roomCode);
+        return offset == null ? Optional.empty() : Optional.of(read(offset));
+    }
+
+    public List<ArchivedGame> findByPlayer(String playerId) {
+        long[] offsets = byPlayer.getOrDefault(playerId, new long[0]);
+        List<ArchivedGame> games = new ArrayList<>(offsets.length);
+        for (long offset : offsets) {
+            games.add(read(offset));
+        }
+        return games;
+    }
+
+    public int size() {
+        return byRoom.size();
+    }
+
+    private byte[] encode(GameState game, Player winner) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeUTF(game.getRoomCode());
+        out.writeUTF(winner.getId());
+        out.writeShort(game.getRoundNumber());
+        out.writeLong(System.currentTimeMillis());
+        out.writeByte(game.getPlayers().size());
+        for (Player p : game.getPlayers()) {
+            out.writeUTF(p.getId());
+            out.writeUTF(p.getName());
+            out.writeShort(p.getTokens());
+        }
+        out.writeInt(game.getGameLog().size());
+        for (String entry : game.getGameLog()) {
+            out.writeUTF(entry);
+        }
+        return bytes.toByteArray();
+    }
+
+    private ArchivedGame decode(DataInputStream in) throws IOException {
+        ArchivedGame game = new ArchivedGame();
+        game.setRoomCode(in.readUTF());
+        game.setWinnerId(in.readUTF());
+        game.setRounds(in.readShort());
+        game.setFinishedAt(in.readLong());
+        int players = in.readByte();
+        for (int i = 0; i < players; i++) {
+            game.getStandings().add(new ArchivedGame.Standing(in.readUTF(), in.readUTF(), in.readShort()));
+        }
+        int entries = in.readInt();
+        for (int i = 0; i < entries; i++) {
+            game.getGameLog().add(in.readUTF());
+        }
+        return game;
+    }
+
+    // Offsets pack the segment index into the high and the position into the low 32 bits
+    private synchronized long append(byte[] record) throws IOException {
+        int needed = Integer.BYTES + record.length;
+        if (needed > SEGMENT_SIZE) {
+            throw new IOException("Archive record too large: " + record.length + " bytes");
+        }
+        if (current == null || current.remaining() < needed) {
+            current = channel != null
+                    ? channel.map(FileChannel.MapMode.READ_WRITE, (long) segments.size() * SEGMENT_SIZE, SEGMENT_SIZE)
+                    : ByteBuffer.allocateDirect(SEGMENT_SIZE);
+            segments.add(current);
+            readable = segments.toArray(new ByteBuffer[0]);
+        }
+        long offset = ((long) (segments.size() - 1) << 32) | current.position();
+        current.putInt(record.length);
+        current.put(record);
+        return offset;
+    }
+
+    private ArchivedGame read(long offset) {
+        ByteBuffer segment = readable[(int) (offset >>> 32)];
+        int position = (int) offset;
+        byte[] record = new byte[segment.getInt(position)];
+        segment.get(position + Integer.BYTES, record);
+        try {
+            return decode(new DataInputStream(new ByteArrayInputStream(record)));
+        } catch (IOException e) {
+            throw new IllegalStateException("Corrupt archive record at " + offset, e);
+        }
+    }
+}
+
+// src/main/java/com/letterlover/server/controller/ArchiveController.java
+package com.letterlover.server.controller;
+
+import com.letterlover.common.dto.ArchivedGame;
+import com.letterlover.server.service.GameArchive;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/archive")
+@RequiredArgsConstructor
+public class ArchiveController {
+
+    private final GameArchive gameArchive;
+
+    @GetMapping("/{roomCode}")
+    public ResponseEntity<ArchivedGame> game(@PathVariable String roomCode) {
+        return ResponseEntity.of(gameArchive.find(roomCode));
+    }
+
+    @GetMapping("/players/{playerId}")
+    public List<ArchivedGame> games(@PathVariable String playerId) {
+        return gameArchive.findByPlayer(playerId);
+    }
+}
+
+// src/main/java/com/letterlover/server/service/LiveAnalytics.java
+package com.letterlover.server.service;
+
+import com.letterlover.common.dto.GameAction;
+import com.letterlover.common.engine.GameEventListener;
+import com.letterlover.common.model.*;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+// Aggregates card effects across all rooms into striped LongAdders: one all-time set plus a ring of
+// one-minute buckets for windowed views. Reads only sum counters and never touch room state.
+@Service
+public class LiveAnalytics implements GameEventListener {
+
+    private static final int TYPES = CardType.values().length;
+    private static final int MAX_VALUE = CardType.PRINCESS.getValue();
+    private static final int MAX_SEATS = 8;
+    private static final int WINDOW_MINUTES = 60;
+
+    private final Counters allTime = new Counters(-1);
+    private final AtomicReferenceArray<Counters> minutes = new AtomicReferenceArray<>(WINDOW_MINUTES);
+    // Turns in the current round per room, written only by the room's own task
+    private final Map<String, int[]> roundTurns = new ConcurrentHashMap<>();
+
+    private static final class Counters {
+        final long minute;
+        final LongAdder[] guardGuesses = adders(TYPES);
+        final LongAdder[] guardHits = adders(TYPES);
+        // Indexed by attacker value minus target value, shifted to be non-negative
+        final LongAdder[] baronGaps = adders(2 * MAX_VALUE + 1);
+        final LongAdder[] attacks = adders(TYPES);
+        final LongAdder[] blocked = adders(TYPES);
+        final LongAdder princes = new LongAdder();
+        final LongAdder forcedPrincess = new LongAdder();
+        final LongAdder[] rounds = adders(MAX_SEATS + 1);
+        final LongAdder[] turns = adders(MAX_SEATS + 1);
+
+        Counters(long minute) {
+            this.minute = minute;
+        }
+    }
+
+    private static LongAdder[] adders(int size) {
+        LongAdder[] adders = new LongAdder[size];
+        for (int i = 0; i < size; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    @Override
+    public void onRoundStart(GameState game) {
+        roundTurns.put(game.getRoomCode(), new int[1]);
+    }
+
+    @Override
+    public void onTurnStart(GameState game) {
+        int[] turns = roundTurns.get(game.getRoomCode());
+        if (turns != null) {
+            turns[0]++;
+        }
+    }
+
+    @Override
+    public void onCardPlayed(GameState game, Player player, GameAction action) {
+        if (action.getTargetPlayerId() != null && !action.getTargetPlayerId().equals(player.getId())) {
+            int type = action.getCardType().ordinal();
+            allTime.attacks[type].increment();
+            current().attacks[type].increment();
+        }
+    }
+
+    @Override
+    public void onBlocked(GameState game, Player player, Player target, CardType cardType) {
+        allTime.blocked[cardType.ordinal()].increment();
+        current().blocked[cardType.ordinal()].increment();
+    }
+
+    @Override
+    public void onGuard(GameState game, Player player, Player target, CardType guess, boolean correct) {
+        Counters minute = current();
+        allTime.guardGuesses[guess.ordinal()].increment();
+        minute.guardGuesses[guess.ordinal()].increment();
+        if (correct) {
+            allTime.guardHits[guess.ordinal()].increment();
+            minute.guardHits[guess.ordinal()].increment();
+        }
+    }
+
+    @Override
+    public void onBaron(GameState game, Player player, Player target, int playerValue, int targetValue) {
+        int gap = playerValue - targetValue + MAX_VALUE;
+        allTime.baronGaps[gap].increment();
+        current().baronGaps[gap].increment();
+    }
+
+    @Override
+    public void onPrince(GameState game, Player player, Player target, Card discarded) {
+        Counters minute = current();
+        allTime.princes.increment();
+        minute.princes.increment();
+        if (discarded.getType() == CardType.PRINCESS) {
+            allTime.forcedPrincess.increment();
+            minute.forcedPrincess.increment();
+        }
+    }
+
+    @Override
+    public void onRoundEnd(GameState game, Player winner, List<Player> contenders) {
+        int[] turns = roundTurns.remove(game.getRoomCode());
+        if (turns == null) {
+            return;
+        }
+        int seats = Math.min(game.getPlayers().size(), MAX_SEATS);
+        Counters minute = current();
+        allTime.rounds[seats].increment();
+        minute.rounds[seats].increment();
+        allTime.turns[seats].add(turns[0]);
+        minute.turns[seats].add(turns[0]);
+    }
+
+    @Override
+    public void onGameEnd(GameState game, Player winner) {
+        roundTurns.remove(game.getRoomCode());
+    }
+
+    // A bucket from a previous lap of the ring is swapped for a fresh one on first use
+    private Counters current() {
+        long minute = System.currentTimeMillis() / 60_000;
+        int slot = (int) (minute % WINDOW_MINUTES);
+        Counters counters = minutes.get(slot);
+        while (counters == null || counters.minute != minute) {
+            Counters fresh = new Counters(minute);
+            if (minutes.compareAndSet(slot, counters, fresh)) {
+                return fresh;
+            }
+            counters = minutes.get(slot);
+        }
+        return counters;
+    }
+
+    // Aggregates the last windowMinutes buckets, or everything since startup when windowMinutes is 0
+    public Map<String, Object> view(int windowMinutes) {
+        List<Counters> sources = new ArrayList<>();
+        if (windowMinutes <= 0) {
+            sources.add(allTime);
+        } else {
+            long now = System.currentTimeMillis() / 60_000;
+            for (int i = 0; i < Math.min(windowMinutes, WINDOW_MINUTES); i++) {
+                Counters counters = minutes.get((int) ((now - i) % WINDOW_MINUTES));
+                if (counters != null && counters.minute == now - i) {
+                    sources.add(counters);
+                }
+            }
+        }
+
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("windowMinutes", windowMinutes);
+
+        Map<CardType, Double> guardAccuracy = new EnumMap<>(CardType.class);
+        Map<CardType, Double> blockRate = new EnumMap<>(CardType.class);
+        for (CardType type : CardType.values()) {
+            long guesses = sum(sources, c -> c.guardGuesses[type.ordinal()]);
+            if (guesses > 0) {
+                guardAccuracy.put(type, (double) sum(sources, c -> c.guardHits[type.ordinal()]) / guesses);
+            }
+            // A blocked play has no target and is not counted as an attack, so both make up the attempts
+            long blocked = sum(sources, c -> c.blocked[type.ordinal()]);
+            long attempts = sum(sources, c -> c.attacks[type.ordinal()]) + blocked;
+            if (attempts > 0) {
+                blockRate.put(type, (double) blocked / attempts);
+            }
+        }
+        view.put("guardAccuracy", guardAccuracy);
+        view.put("handmaidBlockRate", blockRate);
+
+        Map<Integer, Long> baronGaps = new TreeMap<>();
+        for (int gap = -MAX_VALUE; gap <= MAX_VALUE; gap++) {
+            int index = gap + MAX_VALUE;
+            long duels = sum(sources, c -> c.baronGaps[index]);
+            if (duels > 0) {
+                baronGaps.put(gap, duels);
+            }
+        }
+        view.put("baronDuelsByGap", baronGaps);
+
+        view.put("princePlays", sum(sources, c -> c.princes));
+        view.put("princeForcedPrincess", sum(sources, c -> c.forcedPrincess));
+
+        Map<Integer, Double> roundLength = new TreeMap<>();
+        for (int seats = 2; seats <= MAX_SEATS; seats++) {
+            int index = seats;
+            long rounds = sum(sources, c -> c.rounds[index]);
+            if (rounds > 0) {
+                roundLength.put(seats, (double) sum(sources, c -> c.turns[index]) / rounds);
+            }
+        }
+        view.put("averageTurnsPerRoundBySeats", roundLength);
+        return view;
+    }
+
+    private static long sum(List<Counters> sources, Function<Counters, LongAdder> counter) {
+        long total = 0;
+        for (Counters counters : sources) {
+            total += counter.apply(counters).sum();
+        }
+        return total;
+    }
+}
+
+// src/main/java/com/letterlover/server/controller/AnalyticsController.java
+package com.letterlover.server.controller;
+
+import com.letterlover.server.service.LiveAnalytics;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/analytics")
+@RequiredArgsConstructor
+public class AnalyticsController {
+
+    private final LiveAnalytics liveAnalytics;
+
+    // window: minutes to look back (up to 60), 0 for all time
+    @GetMapping
+    public Map<String, Object> analytics(@RequestParam(defaultValue = "0") int window) {
+        return liveAnalytics.view(window);
+    }
+}
+
+// src/main/java/com/letterlover/server/stress/GameServiceStress.java
+package com.letterlover.server.stress;
+
+import ch.qos.logback.classic.Level;
+import com.letterlover.common.dto.GameAction;
+import com.letterlover.common.dto.RoomInfo;
+import com.letterlover.common.engine.GameEventListener;
+import com.letterlover.common.engine.RuleSet;
+import com.letterlover.common.engine.RuleSets;
+import com.letterlover.common.model.*;
+import com.letterlover.server.service.BotMemory;
+import com.letterlover.server.service.GameService;
+import com.letterlover.server.service.LobbyIndex;
+import com.letterlover.server.service.RoomExecutor;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Hammers many rooms from many threads with random legal and illegal actions and checks the game
+// invariants after every step. Joins race on the caller threads; game actions go through the
+// RoomExecutor exactly as GameController sends them.
+//   usage: GameServiceStress [seconds=60] [threads=2*cores] [rooms=512]
+public class GameServiceStress {
+
+    private static final int MAX_IN_FLIGHT = 20_000;
+    private static final int MAX_REPORTED = 20;
+
+    private final GameService gameService;
+    private final RoomExecutor roomExecutor;
+    private final AtomicReferenceArray<String> rooms;
+    private final Semaphore inFlight = new Semaphore(MAX_IN_FLIGHT);
+    private final LongAdder operations = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder gamesFinished = new LongAdder();
+    private final LongAdder violations = new LongAdder();
+    private final Queue<String> reported = new ConcurrentLinkedQueue<>();
+    private final Map<String, Integer> deckSizes = new HashMap<>();
+
+    public GameServiceStress(int roomCount) {
+        this.roomExecutor = new RoomExecutor("platform");
+        LobbyIndex lobbyIndex = new LobbyIndex(new SimpMessagingTemplate((message, timeout) -> true));
+        this.gameService = new GameService(new DefaultListableBeanFactory().getBeanProvider(GameEventListener.class),
+                lobbyIndex, roomExecutor, new BotMemory(), 0, 0, 0);
+        this.gameService.afterSingletonsInstantiated();
+        for (RuleSet rules : RuleSets.all()) {
+            deckSizes.put(rules.getId(), rules.newDeck().size());
+        }
+        this.rooms = new AtomicReferenceArray<>(roomCount);
+        for (int i = 0; i < roomCount; i++) {
+            rooms.set(i, newRoom(i));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger("com.letterlover")).setLevel(Level.ERROR);
+        int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 60;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors() * 2;
+        int roomCount = args.length > 2 ? Integer.parseInt(args[2]) : 512;
+
+        GameServiceStress stress = new GameServiceStress(roomCount);
+        long violations = stress.run(seconds, threads);
+        stress.roomExecutor.shutdown();
+        System.exit(violations == 0 ? 0 : 1);
+    }
+
+    public long run(int seconds, int threads) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        ExecutorService drivers = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            drivers.execute(() -> drive(deadline));
+        }
+        drivers.shutdown();
+        drivers.awaitTermination(seconds + 60L, TimeUnit.SECONDS);
+        inFlight.acquire(MAX_IN_FLIGHT);
+
+        long ops = operations.sum();
+        System.out.printf("%d operations in %d s (%.0f per minute), %d rejected, %d games finished, %d violations%n",
+                ops, seconds, ops * 60.0 / seconds, rejected.sum(), gamesFinished.sum(), violations.sum());
+        reported.forEach(System.out::println);
+        return violations.sum();
+    }
+
+    private String newRoom(int index) {
+        boolean grand = index % 4 == 3;
+        String ruleSet = grand ? RuleSets.GRAND : RuleSets.CLASSIC;
+        return gameService.createRoom("host-" + index + "-" + System.nanoTime(), "Host", ruleSet).getRoomCode();
+    }
+
+    private void drive(long deadline) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (System.nanoTime() < deadline) {
+            int index = random.nextInt(rooms.length());
+            String roomCode = rooms.get(index);
+            int dice = random.nextInt(100);
+            if (dice < 10) {
+                join(roomCode, random);
+            } else {
+                inFlight.acquireUninterruptibly();
+                roomExecutor.execute(roomCode, () -> {
+                    try {
+                        step(index, roomCode, dice);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        }
+    }
+
+    // Runs on the caller thread on purpose, to race other joins and the room's own tasks
+    private void join(String roomCode, ThreadLocalRandom random) {
+        operations.increment();
+        try {
+            gameService.joinRoom(roomCode, "p-" + random.nextInt(16), "Player");
+        } catch (IllegalStateException e) {
+            rejected.increment();
+        }
+    }
+
+    private void step(int index, String roomCode, int dice) {
+        operations.increment();
+        GameState game = gameService.getGame(roomCode);
+        if (game == null) {
+            return;
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        try {
+            if (game.getPhase() == GameState.GamePhase.GAME_END) {
+                gamesFinished.increment();
+                gameService.removeRoom(roomCode);
+                rooms.compareAndSet(index, roomCode, newRoom(index));
+                return;
+            }
+            if (game.getPhase() != GameState.GamePhase.PLAYING || dice < 15) {
+                gameService.startGame(roomCode);
+            } else if (dice < 30) {
+                gameService.playCard(roomCode, randomAction(game, random));
+            } else {
+                gameService.playCard(roomCode, legalAction(game, random));
+            }
+        } catch (IllegalStateException e) {
+            rejected.increment();
+        } catch (RuntimeException e) {
+            violation(roomCode, "unexpected " + e);
+        }
+        check(roomCode, game);
+    }
+
+    private GameAction legalAction(GameState game, ThreadLocalRandom random) {
+        Player current = game.getCurrentPlayer();
+        long mask = game.getLegalMoves();
+        // Pick a random set bit of the legal move mask
+        int pick = random.nextInt(Long.bitCount(mask));
+        for (int i = 0; i < pick; i++) {
+            mask &= mask - 1;
+        }
+        int bit = Long.numberOfTrailingZeros(mask);
+        int seat = bit / 8;
+        int guess = bit % 8;
+        GameAction action = action(current, current.getCurrentCard().getType());
+        action.setTargetPlayerId(seat == game.getCurrentPlayerIndex() ? null : game.getPlayers().get(seat).getId());
+        action.setGuessedCard(guess == 0 ? null : CardType.values()[guess]);
+        return action;
+    }
+
+    private GameAction randomAction(GameState game, ThreadLocalRandom random) {
+        List<Player> players = game.getPlayers();
+        CardType[] types = CardType.values();
+        GameAction action = action(players.get(random.nextInt(players.size())), types[random.nextInt(types.length)]);
+        action.setTargetPlayerId(random.nextBoolean() ? players.get(random.nextInt(players.size())).getId() : "ghost");
+        action.setGuessedCard(random.nextBoolean() ? types[random.nextInt(types.length)] : null);
+        return action;
+    }
+
+    private GameAction action(Player player, CardType type) {
+        GameAction action = new GameAction();
+        action.setType(GameAction.ActionType.PLAY_CARD);
+        action.setPlayerId(player.getId());
+        action.setCardType(type);
+        action.setCardId(player.getCurrentCard() == null ? null : player.getCurrentCard().getId());
+        return action;
+    }
+
+    // Holds the game's monitor so concurrent joins cannot change the table mid-check
+    private void check(String roomCode, GameState game) {
+        RoomInfo room = gameService.getRoom(roomCode);
+        synchronized (game) {
+            List<Player> players = game.getPlayers();
+            if (room != null && players.size() > room.getMaxPlayers()) {
+                violation(roomCode, players.size() + " players at a table of " + room.getMaxPlayers());
+            }
+            Set<String> ids = new HashSet<>();
+            for (Player p : players) {
+                if (!ids.add(p.getId())) {
+                    violation(roomCode, "player " + p.getId() + " seated twice");
+                }
+            }
+            if (game.getPhase() == GameState.GamePhase.WAITING) {
+                return;
+            }
+
+            // Card conservation: every card of the deck is in exactly one place
+            Set<String> cards = new HashSet<>();
+            int seen = game.getDeck().size();
+            game.getDeck().forEach(c -> cards.add(c.getId()));
+            if (game.getBurnedCard() != null) {
+                seen++;
+                cards.add(game.getBurnedCard().getId());
+            }
+            int tokens = 0;
+            int active = 0;
+            for (Player p : players) {
+                if (p.getCurrentCard() != null) {
+                    seen++;
+                    cards.add(p.getCurrentCard().getId());
+                }
+                seen += p.getDiscardedCards().size();
+                p.getDiscardedCards().forEach(c -> cards.add(c.getId()));
+                tokens += p.getTokens();
+                active += p.isEliminated() ? 0 : 1;
+            }
+            int deckSize = deckSizes.get(game.getRuleSet());
+            if (seen != deckSize || cards.size() != deckSize) {
+                violation(roomCode, seen + " cards (" + cards.size() + " distinct) instead of " + deckSize);
+            }
+
+            int finishedRounds = game.getRoundNumber() - (game.getPhase() == GameState.GamePhase.PLAYING ? 1 : 0);
+            if (tokens != finishedRounds) {
+                violation(roomCode, tokens + " tokens after " + finishedRounds + " finished rounds");
+            }
+
+            if (game.getPhase() == GameState.GamePhase.PLAYING) {
+                Player current = game.getCurrentPlayer();
+                if (current == null || current.isEliminated()) {
+                    violation(roomCode, "no active current player at seat " + game.getCurrentPlayerIndex());
+                }
+                if (active != game.getActiveCount() || active < 2) {
+                    violation(roomCode, active + " active players, count says " + game.getActiveCount());
+                }
+                if (game.getLegalMoves() == 0) {
+                    violation(roomCode, "current player has no legal move");
+                }
+            }
+        }
+    }
+
+    private void violation(String roomCode, String message) {
+        violations.increment();
+        if (reported.size() < MAX_REPORTED) {
+            reported.add("room " + roomCode + ": " + message);
+        }
+    }
+}
+
+// src/main/java/com/letterlover/server/stress/RoomExecutorBenchmark.java
+package com.letterlover.server.stress;
+
+import ch.qos.logback.classic.Level;
+import com.letterlover.server.service.RoomExecutor;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+
+// Runs the same mixed load through RoomExecutor in platform and in virtual mode. A task either burns CPU,
+// like applying a move, or blocks, like a persistence call. Reports throughput, queueing delay and any
+// task that ran out of its room's submission order.
+//   usage: RoomExecutorBenchmark [rooms=500] [tasksPerRoom=40] [ioPercent=20] [ioMillis=5] [cpuMicros=50]
+public class RoomExecutorBenchmark {
+
+    private final int rooms;
+    private final int tasksPerRoom;
+    private final int ioPercent;
+    private final long ioMillis;
+    private final long cpuNanos;
+
+    public RoomExecutorBenchmark(int rooms, int tasksPerRoom, int ioPercent, long ioMillis, long cpuMicros) {
+        this.rooms = rooms;
+        this.tasksPerRoom = tasksPerRoom;
+        this.ioPercent = ioPercent;
+        this.ioMillis = ioMillis;
+        this.cpuNanos = TimeUnit.MICROSECONDS.toNanos(cpuMicros);
+    }
+
+    public static void main(String[] args) throws Exception {
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger("com.letterlover")).setLevel(Level.ERROR);
+        int rooms = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int tasksPerRoom = args.length > 1 ? Integer.parseInt(args[1]) : 40;
+        int ioPercent = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+        long ioMillis = args.length > 3 ? Long.parseLong(args[3]) : 5;
+        long cpuMicros = args.length > 4 ? Long.parseLong(args[4]) : 50;
+
+        RoomExecutorBenchmark benchmark = new RoomExecutorBenchmark(rooms, tasksPerRoom, ioPercent, ioMillis, cpuMicros);
+        System.out.printf("%d rooms x %d tasks, %d%% blocking for %d ms, the rest %d us of CPU%n",
+                rooms, tasksPerRoom, ioPercent, ioMillis, cpuMicros);
+        long violations = 0;
+        for (String mode : new String[]{"platform", "virtual", "platform", "virtual"}) {
+            // Each mode runs twice; the first pass warms up the JIT
+            violations += benchmark.run(mode);
+        }
+        System.exit(violations == 0 ? 0 : 1);
+    }
+
+    public long run(String mode) throws InterruptedException {
+        RoomExecutor executor = new RoomExecutor(mode);
+        int total = rooms * tasksPerRoom;
+        CountDownLatch done = new CountDownLatch(total);
+        AtomicIntegerArray lastSeen = new AtomicIntegerArray(rooms);
+        LongAdder outOfOrder = new LongAdder();
+        long[] delays = new long[total];
+
+        long start = System.nanoTime();
+        // Interleave rooms like real traffic, each room's tasks numbered in submission order
+        for (int seq = 0; seq < tasksPerRoom; seq++) {
+            for (int room = 0; room < rooms; room++) {
+                int r = room;
+                int s = seq;
+                int slot = seq * rooms + room;
+                boolean blocking = ThreadLocalRandom.current().nextInt(100) < ioPercent;
+                long submitted = System.nanoTime();
+                executor.execute("bench-" + room, () -> {
+                    delays[slot] = System.nanoTime() - submitted;
+                    if (lastSeen.getAndSet(r, s + 1) != s) {
+                        outOfOrder.increment();
+                    }
+                    work(blocking);
+                    done.countDown();
+                });
+            }
+        }
+        done.await();
+        long elapsed = System.nanoTime() - start;
+        // A drain retires its queue just after its last task, so give the queues a moment to go
+        long settle = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (executor.getQueueCount() > 0 && System.nanoTime() < settle) {
+            Thread.sleep(1);
+        }
+        executor.shutdown();
+
+        Arrays.sort(delays);
+        System.out.printf("%-8s %7.0f tasks/s, queueing p50 %6.2f ms, p99 %8.2f ms, max %8.2f ms, "
+                        + "%d out of order, %d queues left%n",
+                mode, total * 1e9 / elapsed, millis(delays[total / 2]), millis(delays[(int) (total * 0.99)]),
+                millis(delays[total - 1]), outOfOrder.sum(), executor.getQueueCount());
+        return outOfOrder.sum() + executor.getQueueCount();
+    }
+
+    private void work(boolean blocking) {
+        if (blocking) {
+            try {
+                Thread.sleep(ioMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return;
+        }
+        long until = System.nanoTime() + cpuNanos;
+        while (System.nanoTime() < until) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+}
+
+// src/main/java/com/letterlover/server/replay/GameRecord.java
+package com.letterlover.server.replay;
+
+import com.letterlover.common.dto.GameAction;
+import com.letterlover.common.model.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+public class GameRecord {
+    private String roomCode;
+    private String ruleSet;
+    private List<String> playerIds = new ArrayList<>();
+    private List<String> playerNames = new ArrayList<>();
+    private List<CardType[]> shuffles = new ArrayList<>();
+    // Who was dealt in, per round: players who left between rounds are missing from the next one
+    private List<String[]> seatings = new ArrayList<>();
+    private List<GameAction> actions = new ArrayList<>();
+
+    public static GameRecord of(GameState game) {
+        GameRecord record = new GameRecord();
+        record.setRoomCode(game.getRoomCode());
+        record.setRuleSet(game.getRuleSet());
+        for (Player player : game.getPlayers()) {
+            record.getPlayerIds().add(player.getId());
+            record.getPlayerNames().add(player.getName());
+        }
+        return record;
+    }
+
+    public synchronized void addRound(List<Card> deck, List<Player> players) {
+        CardType[] order = new CardType[deck.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = deck.get(i).getType();
+        }
+        shuffles.add(order);
+        String[] seated = new String[players.size()];
+        for (int i = 0; i < seated.length; i++) {
+            seated[i] = players.get(i).getId();
+        }
+        seatings.add(seated);
+    }
+
+    public synchronized void addAction(GameAction action) {
+        actions.add(action);
+    }
+
+    // A leave mid-round goes into the action stream so a replay forfeits the player at the same point
+    public synchronized void addLeave(String playerId) {
+        GameAction leave = new GameAction();
+        leave.setType(GameAction.ActionType.LEAVE_ROOM);
+        leave.setPlayerId(playerId);
+        leave.setRoomCode(roomCode);
+        actions.add(leave);
+    }
+}
+
+// src/main/java/com/letterlover/server/replay/ReplayEngine.java
+package com.letterlover.server.replay;
+
+import com.letterlover.common.dto.GameAction;
+import com.letterlover.common.engine.GameEngine;
+import com.letterlover.common.engine.GameEventListener;
+import com.letterlover.common.engine.LegalMoves;
+import com.letterlover.common.model.*;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+
+@Slf4j
+public class ReplayEngine {
+
+    private final GameEngine engine;
+    private final LongAdder replayed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    public ReplayEngine(List<? extends GameEventListener> analyzers) {
+        // Analyzers are shared by all replay threads and must be thread-safe
+        this.engine = new GameEngine(GameEventListener.of(analyzers), false);
+    }
+
+    public void replayAll(Collection<GameRecord> records) {
+        long start = System.nanoTime();
+        records.parallelStream().forEach(this::replaySafely);
+        log.info("Replayed {} games ({} failed) in {} ms", replayed.sum(), failed.sum(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void replaySafely(GameRecord record) {
+        try {
+            replay(record);
+            replayed.increment();
+        } catch (RuntimeException e) {
+            failed.increment();
+            log.debug("Replay of room {} failed", record.getRoomCode(), e);
+        }
+    }
+
+    public GameState replay(GameRecord record) {
+        GameState game = new GameState();
+        game.setRoomCode(record.getRoomCode());
+        game.setRuleSet(record.getRuleSet());
+        game.setPhase(GameState.GamePhase.WAITING);
+        for (int i = 0; i < record.getPlayerIds().size(); i++) {
+            game.getPlayers().add(new Player(record.getPlayerIds().get(i), record.getPlayerNames().get(i)));
+        }
+
+        Iterator<GameAction> actions = record.getActions().iterator();
+        for (int round = 0; round < record.getShuffles().size(); round++) {
+            // Players only ever leave a started game, so the round's seating is what is left of the table
+            Set<String> seated = Set.of(record.getSeatings().get(round));
+            game.getPlayers().removeIf(p -> !seated.contains(p.getId()));
+
+            engine.startNewRound(game, toDeck(record.getShuffles().get(round)));
+            while (game.getPhase() == GameState.GamePhase.PLAYING && actions.hasNext()) {
+                GameAction action = actions.next();
+                if (action.getType() == GameAction.ActionType.LEAVE_ROOM) {
+                    engine.forfeit(game, game.getPlayers().get(LegalMoves.seatOf(game, action.getPlayerId())));
+                } else {
+                    engine.playCard(game, action);
+                }
+            }
+        }
+        return game;
+    }
+
+    private List<Card> toDeck(CardType[] shuffle) {
+        List<Card> deck = new ArrayList<>(shuffle.length);
+        for (int i = 0; i < shuffle.length; i++) {
+            deck.add(new Card(i, shuffle[i]));
+        }
+        return deck;
+    }
+}
+
+// src/main/java/com/letterlover/server/replay/GuardAccuracyAnalyzer.java
+package com.letterlover.server.replay;
+
+import com.letterlover.common.engine.GameEventListener;
+import com.letterlover.common.model.*;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public class GuardAccuracyAnalyzer implements GameEventListener {
+
+    private final AtomicLongArray guesses = new AtomicLongArray(CardType.values().length);
+    private final AtomicLongArray hits = new AtomicLongArray(CardType.values().length);
+
+    @Override
+    public void onGuard(GameState game, Player player, Player target, CardType guess, boolean correct) {
+        guesses.incrementAndGet(guess.ordinal());
+        if (correct) {
+            hits.incrementAndGet(guess.ordinal());
+        }
+    }
+
+    public Map<CardType, Double> getAccuracy() {
+        Map<CardType, Double> accuracy = new EnumMap<>(CardType.class);
+        for (CardType type : CardType.values()) {
+            long total = guesses.get(type.ordinal());
+            if (total > 0) {
+                accuracy.put(type, (double) hits.get(type.ordinal()) / total);
+            }
+        }
+        return accuracy;
+    }
+}
+
+// src/main/java/com/letterlover/server/replay/BaronOutcomeAnalyzer.java
+package com.letterlover.server.replay;
+
+import com.letterlover.common.engine.GameEventListener;
+import com.letterlover.common.model.*;
+
+import java.util.concurrent.atomic.LongAdder;
+
+public class BaronOutcomeAnalyzer implements GameEventListener {
+
+    private final LongAdder duels = new LongAdder();
+    private final LongAdder wins = new LongAdder();
+    private final LongAdder ties = new LongAdder();
+
+    @Override
+    public void onBaron(GameState game, Player player, Player target, int playerValue, int targetValue) {
+        duels.increment();
+        if (playerValue > targetValue) {
+            wins.increment();
+        } else if (playerValue == targetValue) {
+            ties.increment();
+        }
+    }
+
+    public long getDuels() {
+        return duels.sum();
+    }
+
+    public double getWinRate() {
+        long total = duels.sum();
+        return total == 0 ? 0 : (double) wins.sum() / total;
+    }
+
+    public double getTieRate() {
+        long total = duels.sum();
+        return total == 0 ? 0 : (double) ties.sum() / total;
+    }
+}
+
+// src/main/java/com/letterlover/server/replay/RoundTieAnalyzer.java
+package com.letterlover.server.replay;
+
+import com.letterlover.common.engine.GameEventListener;
+import com.letterlover.common.model.*;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+public class RoundTieAnalyzer implements GameEventListener {
+
+    private final LongAdder rounds = new LongAdder();
+    // Index = number of contenders sharing the highest card at round end
+    private final AtomicLongArray tieSizes = new AtomicLongArray(5);
+
+    @Override
+    public void onRoundEnd(GameState game, Player winner, List<Player> contenders) {
+        rounds.increment();
+        if (contenders.size() < 2) {
+            return;
+        }
+        int best = value(winner);
+        int sharing = 0;
+        for (Player p : contenders) {
+            if (value(p) == best) {
+                sharing++;
+            }
+        }
+        if (sharing > 1) {
+            tieSizes.incrementAndGet(Math.min(sharing, tieSizes.length() - 1));
+        }
+    }
+
+    // A late Prince can leave a contender empty-handed, which the engine counts as 0
+    private static int value(Player player) {
+        return player.getCurrentCard() == null ? 0 : player.getCurrentCard().getValue();
+    }
+
+    public long getRounds() {
+        return rounds.sum();
+    }
+
+    public long getTies(int contenders) {
+        return tieSizes.get(contenders);
     }
 }
 